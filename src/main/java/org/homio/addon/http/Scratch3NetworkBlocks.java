@@ -15,8 +15,10 @@ import static org.springframework.http.MediaType.APPLICATION_XML_VALUE;
 import static org.springframework.http.MediaType.TEXT_HTML_VALUE;
 import static org.springframework.http.MediaType.TEXT_PLAIN_VALUE;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.pivovarit.function.ThrowingBiConsumer;
+import jakarta.annotation.PreDestroy;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
@@ -25,13 +27,18 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -46,8 +53,11 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.homio.api.Context;
 import org.homio.api.state.JsonType;
 import org.homio.api.state.RawType;
@@ -66,16 +76,24 @@ import org.homio.api.workspace.WorkspaceBlock;
 import org.homio.api.workspace.scratch.Scratch3Block.ScratchSettingBaseEntity;
 import org.homio.api.workspace.scratch.Scratch3ExtensionBlocks;
 import org.homio.app.manager.common.ContextImpl;
+import org.homio.app.utils.AppMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
+@Log4j2
 @Getter
 @Component
 public class Scratch3NetworkBlocks extends Scratch3ExtensionBlocks {
 
   private final DatagramSocket udpSocket = new DatagramSocket();
+  // shared between all http blocks, created on first request
+  @Getter(AccessLevel.NONE)
+  private CloseableHttpClient httpClient;
+  // block id -> template, removed when block's workspace is released
+  @Getter(AccessLevel.NONE)
+  private final Map<String, RequestTemplate> requestTemplates = new ConcurrentHashMap<>();
 
   public Scratch3NetworkBlocks(Context context) throws SocketException {
     super("#5F9DC9", context, null, "net");
@@ -264,36 +282,90 @@ public class Scratch3NetworkBlocks extends Scratch3ExtensionBlocks {
       case Bearer -> request.setHeader(AUTHORIZATION, "Basic " + setting.token);
     }
 
-    // build headers
-    if (setting.httpHeaders != null) {
-      Map<String, String> headers =
-          OBJECT_MAPPER.readValue(setting.httpHeaders, new TypeReference<>() {});
-      for (Entry<String, String> headerEntry : headers.entrySet()) {
-        request.setHeader(headerEntry.getKey(), headerEntry.getValue());
-      }
+    RequestTemplate template = getRequestTemplate(workspaceBlock, setting);
+    for (Entry<String, String> headerEntry : template.headers.entrySet()) {
+      request.setHeader(headerEntry.getKey(), headerEntry.getValue());
     }
 
     // Build query uri
     URIBuilder uriBuilder = new URIBuilder(URI.create(url));
-    if (setting.queryParameters != null) {
-      Map<String, String> queries =
-          OBJECT_MAPPER.readValue(setting.queryParameters, new TypeReference<>() {});
-      for (Entry<String, String> queryEntry : queries.entrySet()) {
-        uriBuilder.addParameter(queryEntry.getKey(), queryEntry.getValue());
-      }
+    for (Entry<String, String> queryEntry : template.queries.entrySet()) {
+      uriBuilder.addParameter(queryEntry.getKey(), queryEntry.getValue());
     }
     request.setURI(uriBuilder.build());
+    request.setConfig(config);
 
     // override parameters
     applyParentBlocks(request, workspaceBlock.getParent());
 
-    try (CloseableHttpClient client =
-        HttpClientBuilder.create().setDefaultRequestConfig(config).build()) {
-      HttpResponse response = client.execute(request);
+    // response is read fully in convertResult, so connection goes back to pool and is reused with keep-alive
+    try (CloseableHttpResponse response = getHttpClient().execute(request)) {
       workspaceBlock.setValue(convertResult(response, setting));
     }
   }
 
+  /**
+   * Parsed headers/query of block setting. Parsed again only if block's setting json changed
+   */
+  @SneakyThrows
+  private RequestTemplate getRequestTemplate(WorkspaceBlock workspaceBlock, HttpRequestEntity setting) {
+    String blockId = workspaceBlock.getId();
+    RequestTemplate template = requestTemplates.get(blockId);
+    if (template == null
+        || !Objects.equals(template.httpHeaders, setting.httpHeaders)
+        || !Objects.equals(template.queryParameters, setting.queryParameters)) {
+      RequestTemplate newTemplate = new RequestTemplate(setting.httpHeaders, setting.queryParameters,
+          parseKeyValues(setting.httpHeaders), parseKeyValues(setting.queryParameters));
+      if (requestTemplates.put(blockId, newTemplate) == null) {
+        workspaceBlock.onRelease(() -> requestTemplates.remove(blockId));
+      }
+      template = newTemplate;
+    }
+    return template;
+  }
+
+  private static Map<String, String> parseKeyValues(String json) throws JsonProcessingException {
+    return json == null ? Map.of() : OBJECT_MAPPER.readValue(json, new TypeReference<>() {});
+  }
+
+  private synchronized CloseableHttpClient getHttpClient() {
+    if (httpClient == null) {
+      PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(context.setting().getEnv("http-block-max-connections", 50, true));
+      connectionManager.setDefaultMaxPerRoute(context.setting().getEnv("http-block-max-connections-per-route", 10, true));
+      // validate connections that were idle for a while, device may drop keep-alive silently
+      connectionManager.setValidateAfterInactivity(2000);
+      int idleTimeout = context.setting().getEnv("http-block-idle-timeout-sec", 30, true);
+      httpClient = HttpClientBuilder.create()
+          .setConnectionManager(connectionManager)
+          .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+          .evictExpiredConnections()
+          .evictIdleConnections(idleTimeout, TimeUnit.SECONDS)
+          .build();
+      AppMetrics.gauge("http.block.connections.leased", () -> connectionManager.getTotalStats().getLeased());
+      AppMetrics.gauge("http.block.connections.available", () -> connectionManager.getTotalStats().getAvailable());
+      AppMetrics.gauge("http.block.connections.pending", () -> connectionManager.getTotalStats().getPending());
+    }
+    return httpClient;
+  }
+
+  @PreDestroy
+  public synchronized void closeHttpClient() {
+    if (httpClient != null) {
+      // closes connection manager and idle connection evictor thread as well
+      try {
+        httpClient.close();
+      } catch (Exception ex) {
+        log.warn("Unable to close http block client: {}", CommonUtils.getErrorMessage(ex));
+      }
+      httpClient = null;
+      AppMetrics.removeGauge("http.block.connections.leased");
+      AppMetrics.removeGauge("http.block.connections.available");
+      AppMetrics.removeGauge("http.block.connections.pending");
+    }
+    requestTemplates.clear();
+  }
+
   @SneakyThrows
   private State convertResult(HttpResponse response, HttpRequestEntity setting) {
     switch (setting.responseType) {
@@ -331,6 +403,10 @@ public class Scratch3NetworkBlocks extends Scratch3ExtensionBlocks {
     HttpApplyHandler.valueOf(parent.getOpcode()).applyFn.accept(parent, request);
   }
 
+  private record RequestTemplate(String httpHeaders, String queryParameters,
+                                 Map<String, String> headers, Map<String, String> queries) {
+  }
+
   @AllArgsConstructor
   private enum HttpApplyHandler {
     update_payload(
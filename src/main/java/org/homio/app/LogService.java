@@ -6,11 +6,14 @@ import static org.apache.logging.slf4j.Log4jLogger.FQCN;
 import com.pivovarit.function.ThrowingConsumer;
 import com.sshtools.common.logger.DefaultLoggerContext;
 import com.sshtools.common.logger.Log;
+import jakarta.annotation.PreDestroy;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.Map.Entry;
@@ -18,12 +21,12 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.FileHandler;
 import java.util.logging.LogRecord;
 import java.util.logging.SimpleFormatter;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
@@ -81,6 +84,9 @@ public class LogService
           "com.zaxxer",
           "org.hibernate");*/
   private static final BlockingQueue<LogWrapper> eventQueue = new LinkedBlockingQueue<>();
+  // max events handled by 'EntityLogHandler' at once and max time entity logs may stay in buffers
+  private static final int MAX_LOG_BATCH = 512;
+  private static final long LOG_FLUSH_INTERVAL = 500;
 
   static {
     try {
@@ -113,11 +119,22 @@ public class LogService
 
     new Thread(
             () -> {
+              List<LogWrapper> batch = new ArrayList<>(MAX_LOG_BATCH);
               while (true) {
                 try {
-                  globalAppender.logStrategy.accept(eventQueue.take());
+                  LogWrapper wrapper = eventQueue.poll(LOG_FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                  if (wrapper != null) {
+                    batch.add(wrapper);
+                    eventQueue.drainTo(batch, MAX_LOG_BATCH - 1);
+                    for (LogWrapper item : batch) {
+                      globalAppender.logStrategy.accept(item);
+                    }
+                  }
+                  globalAppender.flushEntityLogsIfRequire();
                 } catch (Exception ex) {
                   log.error("Error while execute log event handler", ex);
+                } finally {
+                  batch.clear();
                 }
               }
             },
@@ -237,7 +254,11 @@ public class LogService
             "log-entity",
             baseEntity -> {
               if (baseEntity instanceof HasEntityLog) {
-                globalAppender.logConsumers.remove(baseEntity.getEntityID());
+                LogConsumer logConsumer =
+                    globalAppender.logConsumers.remove(baseEntity.getEntityID());
+                if (logConsumer != null) {
+                  logConsumer.logFile.close();
+                }
               }
             });
     context
@@ -355,16 +376,31 @@ public class LogService
     globalAppender.setContext(context);
   }
 
+  /**
+   * Entity log lines stay in file buffers until next 'EntityLogHandler' tick, so write them on shutdown
+   */
+  @PreDestroy
+  public void closeEntityLogs() {
+    globalAppender.closeEntityLogs();
+  }
+
   public @Nullable Path getEntityLogsFile(BaseEntity baseEntity) {
     LogConsumer logConsumer = globalAppender.logConsumers.get(baseEntity.getEntityID());
-    return logConsumer == null ? null : logConsumer.logFile;
+    if (logConsumer == null) {
+      return null;
+    }
+    // make sure file contains all buffered lines
+    logConsumer.logFile.flush(null);
+    return logConsumer.logFile.path;
   }
 
   public void deleteEntityLogsFile(BaseEntity baseEntity) {
     LogConsumer logConsumer = globalAppender.logConsumers.get(baseEntity.getEntityID());
     if (logConsumer != null) {
       try {
-        Files.deleteIfExists(logConsumer.logFile);
+        logConsumer.logFile.close();
+        Files.deleteIfExists(logConsumer.logFile.path);
+        Files.deleteIfExists(logConsumer.logFile.rotatedPath());
       } catch (IOException ex) {
         log.error("Unable to delete entity log file: {}", CommonUtils.getErrorMessage(ex));
       }
@@ -392,6 +428,8 @@ public class LogService
 
     private final Map<String, LogConsumer> logConsumers = new ConcurrentHashMap<>();
     private final Map<String, DefinedAppenderConsumer> definedAppender = new HashMap<>();
+    private volatile @Nullable Context context;
+    private long lastEntityLogsFlush;
 
     // keep all logs in memory until we switch strategy via setContext(...) method
     private List<LogWrapper> bufferedLogEvents = new CopyOnWriteArrayList<>();
@@ -409,6 +447,7 @@ public class LogService
     }
 
     public synchronized void setContext(ContextImpl context) {
+      this.context = context;
       this.logStrategy = event -> sendLogs(context, event);
       flushBufferedLogs();
     }
@@ -454,9 +493,26 @@ public class LogService
 
     private static void writeEvent(Context context, LogConsumer logConsumer, String message)
         throws IOException {
-      Files.writeString(
-          logConsumer.logFile, message + System.lineSeparator(), StandardOpenOption.APPEND);
-      context.ui().sendDynamicUpdate("entity-log-" + logConsumer.entityID, message);
+      logConsumer.logFile.write(context, message);
+    }
+
+    private void closeEntityLogs() {
+      for (LogConsumer logConsumer : logConsumers.values()) {
+        logConsumer.logFile.flush(null);
+        logConsumer.logFile.close();
+      }
+    }
+
+    // called periodically from 'EntityLogHandler' thread
+    private void flushEntityLogsIfRequire() {
+      if (System.currentTimeMillis() - lastEntityLogsFlush < LOG_FLUSH_INTERVAL) {
+        return;
+      }
+      lastEntityLogsFlush = System.currentTimeMillis();
+      Context context = this.context;
+      for (LogConsumer logConsumer : logConsumers.values()) {
+        logConsumer.logFile.flush(context);
+      }
     }
   }
 
@@ -473,21 +529,147 @@ public class LogService
   }
 
   @Getter
-  @AllArgsConstructor
   private static class LogConsumer {
 
     private final List<Predicate<LogEvent>> logTopics = new ArrayList<>();
     private final @NotNull String entityID;
     private final @NotNull Class<?> targetClass;
-    private final @NotNull Path logFile;
+    private final @NotNull EntityLogFile logFile;
     private boolean debug;
 
+    public LogConsumer(
+        @NotNull String entityID, @NotNull Class<?> targetClass, @NotNull Path logFile, boolean debug) {
+      this.entityID = entityID;
+      this.targetClass = targetClass;
+      this.logFile = new EntityLogFile(entityID, logFile);
+      this.debug = debug;
+    }
+
     @Override
     public String toString() {
       return entityID;
     }
   }
 
+  /**
+   * Entity log file that stays open between writes. File writes are buffered and flushed when buffer is full or on
+   * 'EntityLogHandler' tick, lines for ui are collected and sent as single update per tick. File is rotated to '.1' file when
+   * exceeds max size
+   */
+  private static class EntityLogFile {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    private static final int MAX_PENDING_UPDATES = 1000;
+
+    private final @NotNull String entityID;
+    private final @NotNull Path path;
+    private final List<String> pendingUpdates = new ArrayList<>();
+    private @Nullable Writer writer;
+    private long fileSize;
+
+    private EntityLogFile(@NotNull String entityID, @NotNull Path path) {
+      this.entityID = entityID;
+      this.path = path;
+    }
+
+    public synchronized void write(@NotNull Context context, @NotNull String message)
+        throws IOException {
+      if (writer == null) {
+        writer =
+            new BufferedWriter(
+                new OutputStreamWriter(
+                    Files.newOutputStream(
+                        path, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                    StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        fileSize = Files.size(path);
+      }
+      writer.write(message);
+      writer.write(System.lineSeparator());
+      fileSize += utf8Length(message) + System.lineSeparator().length();
+      if (fileSize > MAX_FILE_SIZE) {
+        rotate();
+      }
+      pendingUpdates.add(message);
+      if (pendingUpdates.size() >= MAX_PENDING_UPDATES) {
+        sendUpdates(context);
+      }
+    }
+
+    /**
+     * Encoded size of text in UTF-8 without encoding it
+     */
+    private static int utf8Length(@NotNull String text) {
+      int length = 0;
+      for (int i = 0; i < text.length(); i++) {
+        char ch = text.charAt(i);
+        if (ch < 0x80) {
+          length++;
+        } else if (ch < 0x800) {
+          length += 2;
+        } else if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+          length += 4;
+          i++;
+        } else {
+          // lone surrogate is encoded as '?' replacement
+          length += Character.isSurrogate(ch) ? 1 : 3;
+        }
+      }
+      return length;
+    }
+
+    /**
+     * @param context - null if only file has to be flushed
+     */
+    public synchronized void flush(@Nullable Context context) {
+      try {
+        if (writer != null) {
+          writer.flush();
+        }
+      } catch (IOException ex) {
+        log.error("[{}]: Unable to flush entity log file: {}", entityID, CommonUtils.getErrorMessage(ex));
+        closeWriter();
+      }
+      if (context != null && !pendingUpdates.isEmpty()) {
+        sendUpdates(context);
+      }
+    }
+
+    public synchronized void close() {
+      closeWriter();
+      pendingUpdates.clear();
+    }
+
+    public Path rotatedPath() {
+      return path.resolveSibling(path.getFileName() + ".1");
+    }
+
+    private void rotate() throws IOException {
+      closeWriter();
+      Files.move(path, rotatedPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void sendUpdates(Context context) {
+      // multi-line messages already sent for stack traces, so ui is able to render joined lines
+      context
+          .ui()
+          .sendDynamicUpdate(
+              "entity-log-" + entityID, String.join(System.lineSeparator(), pendingUpdates));
+      pendingUpdates.clear();
+    }
+
+    private void closeWriter() {
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException ignore) {
+        }
+        writer = null;
+      }
+    }
+  }
+
   private record EntityLogBuilderImpl(BaseEntity entity, LogConsumer logConsumer)
       implements EntityLogBuilder {
 
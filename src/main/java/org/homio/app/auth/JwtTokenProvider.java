@@ -2,6 +2,7 @@ package org.homio.app.auth;
 
 import static org.homio.api.util.HardwareUtils.MACHINE_IP_ADDRESS;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
@@ -11,10 +12,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import javax.crypto.SecretKey;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.homio.api.entity.UserEntity;
 import org.homio.api.model.Icon;
 import org.homio.api.ui.field.action.ActionInputParameter;
@@ -27,6 +30,7 @@ import org.homio.app.setting.system.SystemLogoutButtonSetting;
 import org.homio.app.setting.system.auth.SystemDisableAuthTokenOnRestartSetting;
 import org.homio.app.setting.system.auth.SystemJWTTokenValidSetting;
 import org.homio.app.spring.ContextCreated;
+import org.homio.app.utils.AppMetrics;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -38,11 +42,24 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class JwtTokenProvider implements ContextCreated {
 
+  private static final int MAX_VERIFIED_TOKENS = 1024;
+
   private final UserEntityDetailsService userEntityDetailsService;
   private final Object NULL = new Object();
   private final Map<String, Authentication> userCache = new ConcurrentHashMap<>();
   private final Map<String, Object> blockedTokens = new ConcurrentHashMap<>();
-  private JwtParser jwtParser;
+  // sha256 of token -> claims of token with valid signature. Saves signature verification on every request
+  private final Map<String, VerifiedToken> verifiedTokens =
+      new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+          return size() > MAX_VERIFIED_TOKENS;
+        }
+      };
+  private final LongAdder verifiedCacheHits = AppMetrics.counter("jwt.verify.cache.hit");
+  private final LongAdder verifiedCacheMisses = AppMetrics.counter("jwt.verify.cache.miss");
+  private final AppMetrics.Timer verifyTimer = AppMetrics.timer("jwt.verify");
+  private volatile JwtParser jwtParser;
   private boolean regenerateSecurityIdOnRestart;
   private @Getter int jwtValidityTimeout;
   private byte[] securityId;
@@ -104,6 +121,7 @@ public class JwtTokenProvider implements ContextCreated {
             () -> {
               userCache.clear();
               blockedTokens.clear();
+              clearVerifiedTokens();
             });
 
     addCreateGuestAccessToken(context);
@@ -149,6 +167,7 @@ public class JwtTokenProvider implements ContextCreated {
                               if (user.getEntityID()
                                   .equals(UserEntityDetailsService.getEntityID(entry.getValue()))) {
                                 blockedTokens.put(entry.getKey(), NULL);
+                                evictVerifiedToken(entry.getKey());
                                 return true;
                               }
                               return false;
@@ -164,6 +183,7 @@ public class JwtTokenProvider implements ContextCreated {
 
   public void revokeToken(String token) {
     userCache.remove(token);
+    evictVerifiedToken(token);
   }
 
   public Authentication getAuthentication(String token) {
@@ -229,17 +249,28 @@ public class JwtTokenProvider implements ContextCreated {
   private void regenerateSecurityID(ContextImpl context) {
     this.securityId = buildSecurityId();
     var key = Keys.hmacShaKeyFor(securityId);
-    this.jwtParser = Jwts.parser().verifyWith(key).requireIssuer("homio_app").build();
+    JwtParser parser = Jwts.parser().verifyWith(key).requireIssuer("homio_app").build();
+    // tokens signed by old key are not valid anymore. Parser is swapped under same lock as cache put, so token verified by
+    // old parser can't be cached after clear
+    synchronized (verifiedTokens) {
+      this.jwtParser = parser;
+      verifiedTokens.clear();
+    }
     context.ui().dialog().reloadWindow("sys.auth_changed");
   }
 
   private void removeOutdatedTokens() {
-    blockedTokens.keySet().removeIf(blockToken -> !isTokenValid(blockToken));
+    // blocked tokens are never accepted, so no reason to keep them in verified cache
+    blockedTokens.keySet().removeIf(blockToken -> !isTokenValid(blockToken, false));
   }
 
   private boolean isTokenValid(String token) {
+    return isTokenValid(token, true);
+  }
+
+  private boolean isTokenValid(String token, boolean cache) {
     try {
-      this.jwtParser.parseSignedClaims(token);
+      getVerifiedClaims(token, cache);
       return true;
     } catch (JwtException | IllegalArgumentException e) {
       return false;
@@ -247,7 +278,60 @@ public class JwtTokenProvider implements ContextCreated {
   }
 
   private String getUsername(String token) {
-    return jwtParser.parseSignedClaims(token).getPayload().getSubject();
+    return getVerifiedClaims(token, true).getSubject();
+  }
+
+  /**
+   * Returns claims of previously verified token until token's expiration, otherwise verifies signature
+   *
+   * @param cache - put verified token into cache
+   * @throws JwtException if token is not valid
+   */
+  private Claims getVerifiedClaims(String token, boolean cache) {
+    String digest = DigestUtils.sha256Hex(token);
+    VerifiedToken verifiedToken;
+    synchronized (verifiedTokens) {
+      verifiedToken = verifiedTokens.get(digest);
+    }
+    if (verifiedToken != null) {
+      if (verifiedToken.expiresAt > System.currentTimeMillis()) {
+        verifiedCacheHits.increment();
+        return verifiedToken.claims;
+      }
+      evictVerifiedToken(token);
+    }
+    verifiedCacheMisses.increment();
+    JwtParser parser = this.jwtParser;
+    long started = System.nanoTime();
+    Claims claims;
+    try {
+      claims = parser.parseSignedClaims(token).getPayload();
+    } finally {
+      verifyTimer.recordSince(started);
+    }
+    Date expiration = claims.getExpiration();
+    if (cache && expiration != null) {
+      synchronized (verifiedTokens) {
+        // skip caching if key was rotated while verifying
+        if (parser == this.jwtParser) {
+          verifiedTokens.put(digest, new VerifiedToken(claims, expiration.getTime()));
+        }
+      }
+    }
+    return claims;
+  }
+
+  private void evictVerifiedToken(String token) {
+    String digest = DigestUtils.sha256Hex(token);
+    synchronized (verifiedTokens) {
+      verifiedTokens.remove(digest);
+    }
+  }
+
+  private void clearVerifiedTokens() {
+    synchronized (verifiedTokens) {
+      verifiedTokens.clear();
+    }
   }
 
   private byte[] buildSecurityId() {
@@ -261,4 +345,6 @@ public class JwtTokenProvider implements ContextCreated {
     }
     return securityId.toString().getBytes(StandardCharsets.UTF_8);
   }
+
+  private record VerifiedToken(Claims claims, long expiresAt) {}
 }
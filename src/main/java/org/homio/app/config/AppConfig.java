@@ -65,6 +65,7 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.orm.jpa.persistenceunit.PersistenceUnitManager;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -80,6 +81,8 @@ import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
 import java.io.IOException;
 import java.util.*;
@@ -285,6 +288,14 @@ public class AppConfig implements WebMvcConfigurer, SchedulingConfigurer, Applic
             ApplicationContext applicationContext = cre.getApplicationContext();
             ContextImpl contextImpl = applicationContext.getBean(ContextImpl.class);
             contextImpl.afterContextStart(applicationContext);
+        } else if (event instanceof SessionSubscribeEvent sse && this.applicationReady) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(sse.getMessage());
+            if (accessor.getSessionId() != null) {
+                applicationContext.getBean(ContextImpl.class).ui()
+                        .onSessionSubscribe(accessor.getSessionId(), accessor.getDestination());
+            }
+        } else if (event instanceof SessionDisconnectEvent sde && this.applicationReady) {
+            applicationContext.getBean(ContextImpl.class).ui().onSessionDisconnect(sde.getSessionId());
         }
     }
 
@@ -0,0 +1,85 @@
+package org.homio.app.console;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import org.homio.api.Context;
+import org.homio.api.console.ConsolePluginTable;
+import org.homio.api.model.HasEntityIdentifier;
+import org.homio.api.ui.field.UIField;
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class MetricsConsolePlugin implements ConsolePluginTable<MetricsConsolePlugin.MetricEntity> {
+
+  @Getter
+  private final @Accessors(fluent = true) Context context;
+
+  @Override
+  public String getParentTab() {
+    return "hardware";
+  }
+
+  @Override
+  public Collection<MetricEntity> getValue() {
+    List<MetricEntity> list = new ArrayList<>();
+    for (Map.Entry<String, Object> entry : AppMetrics.snapshot().entrySet()) {
+      list.add(new MetricEntity(entry.getKey(), entry.getValue()));
+    }
+    return list;
+  }
+
+  @Override
+  public @Nullable Collection<TableCell> getUpdatableValues() {
+    Set<TableCell> cells = new HashSet<>();
+    for (Map.Entry<String, Object> entry : AppMetrics.snapshot().entrySet()) {
+      cells.add(new TableCell(entry.getKey(), "value", entry.getValue()));
+    }
+    return cells;
+  }
+
+  @Override
+  public int order() {
+    return 1600;
+  }
+
+  @Override
+  public @NotNull String getName() {
+    return "metrics";
+  }
+
+  @Override
+  public @NotNull Class<MetricEntity> getEntityClass() {
+    return MetricEntity.class;
+  }
+
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class MetricEntity implements HasEntityIdentifier {
+
+    @UIField(order = 1)
+    private String name;
+
+    @UIField(order = 2)
+    private Object value;
+
+    @Override
+    public String getEntityID() {
+      return name;
+    }
+  }
+}
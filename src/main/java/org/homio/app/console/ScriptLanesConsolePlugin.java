@@ -0,0 +1,95 @@
+package org.homio.app.console;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Accessors;
+import org.homio.api.Context;
+import org.homio.api.console.ConsolePluginTable;
+import org.homio.api.model.HasEntityIdentifier;
+import org.homio.api.ui.field.UIField;
+import org.homio.app.manager.ScriptLanes.LaneState;
+import org.homio.app.manager.ScriptService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class ScriptLanesConsolePlugin implements ConsolePluginTable<ScriptLanesConsolePlugin.ScriptLaneEntity> {
+
+  @Getter
+  private final @Accessors(fluent = true) Context context;
+  private final ScriptService scriptService;
+
+  @Override
+  public String getParentTab() {
+    return "hardware";
+  }
+
+  @Override
+  public Collection<ScriptLaneEntity> getValue() {
+    List<ScriptLaneEntity> list = new ArrayList<>();
+    for (LaneState state : scriptService.getLaneStates()) {
+      list.add(new ScriptLaneEntity("lane-" + state.index(), state.queueSize(), state.runningEntityID(), state.runningMs()));
+    }
+    return list;
+  }
+
+  @Override
+  public @Nullable Collection<TableCell> getUpdatableValues() {
+    Set<TableCell> cells = new HashSet<>();
+    for (LaneState state : scriptService.getLaneStates()) {
+      String id = "lane-" + state.index();
+      cells.add(new TableCell(id, "queueSize", state.queueSize()));
+      cells.add(new TableCell(id, "running", state.runningEntityID()));
+      cells.add(new TableCell(id, "runningMs", state.runningMs()));
+    }
+    return cells;
+  }
+
+  @Override
+  public int order() {
+    return 1700;
+  }
+
+  @Override
+  public @NotNull String getName() {
+    return "script-lanes";
+  }
+
+  @Override
+  public @NotNull Class<ScriptLaneEntity> getEntityClass() {
+    return ScriptLaneEntity.class;
+  }
+
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ScriptLaneEntity implements HasEntityIdentifier {
+
+    @UIField(order = 1)
+    private String lane;
+
+    @UIField(order = 2)
+    private int queueSize;
+
+    @UIField(order = 3)
+    private String running;
+
+    @UIField(order = 4)
+    private long runningMs;
+
+    @Override
+    public String getEntityID() {
+      return lane;
+    }
+  }
+}
@@ -9,13 +9,20 @@ import org.homio.api.Context;
 import org.homio.api.entity.BaseEntity;
 import org.homio.api.exception.ServerException;
 import org.homio.api.model.HasEntityIdentifier;
+import org.homio.app.manager.InstrumentedCache.CacheStats;
 import org.homio.app.repository.AbstractRepository;
 import org.homio.app.utils.CollectionUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -47,7 +54,22 @@ public class CacheService {
       ENTITY_IDS_BY_CLASS_NAME,
       REPOSITORY_BY_CLAZZ,
       CACHE_CLASS_BY_TYPE,
-      JS_COMPLETIONS);
+      JS_COMPLETIONS) {
+      @Override
+      protected @NotNull Cache createConcurrentMapCache(@NotNull String name) {
+        return new InstrumentedCache(name, isAllowNullValues());
+      }
+    };
+  }
+
+  public @NotNull List<CacheStats> getStats() {
+    List<CacheStats> stats = new ArrayList<>();
+    for (String cache : cacheManager.getCacheNames()) {
+      if (cacheManager.getCache(cache) instanceof InstrumentedCache instrumentedCache) {
+        stats.add(instrumentedCache.getStats());
+      }
+    }
+    return stats;
   }
 
   public void clearCache() {
@@ -57,18 +79,46 @@ public class CacheService {
     }
   }
 
+  /**
+   * Evict cached entity, it's related entities and id lists of their classes. Entities which entity creates itself pass
+   * through save() and evict own classes
+   */
   public void entityUpdated(BaseEntity entity) {
     Set<BaseEntity> relatedEntities = CollectionUtils.nullSafeSet();
     entity.getAllRelatedEntities(relatedEntities);
     relatedEntities.add(entity);
+    Cache entityCache = Objects.requireNonNull(cacheManager.getCache(ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI));
+    Set<Class<?>> classes = new HashSet<>();
     for (BaseEntity relatedEntity : relatedEntities) {
       if (relatedEntity != null) {
-        Objects.requireNonNull(cacheManager.getCache(ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI))
-          .evict(relatedEntity.getEntityID());
+        entityCache.evict(relatedEntity.getEntityID());
+        classes.add(relatedEntity.getClass());
       }
     }
-    // need remove all because entity may create also another entities
-    Objects.requireNonNull(cacheManager.getCache(ENTITY_IDS_BY_CLASS_NAME)).clear();
+    evictEntityIDs(classes);
+  }
+
+  /**
+   * Same as entityUpdated but also for case when entity already not exists in db
+   */
+  public void entityRemoved(@NotNull String entityID, @Nullable BaseEntity entity) {
+    Objects.requireNonNull(cacheManager.getCache(ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI)).evict(entityID);
+    if (entity != null) {
+      entityUpdated(entity);
+    }
+  }
+
+  /**
+   * ENTITY_IDS_BY_CLASS_NAME is keyed by requested class, so evict lists of classes and their super classes
+   */
+  private void evictEntityIDs(Set<Class<?>> classes) {
+    Cache cache = Objects.requireNonNull(cacheManager.getCache(ENTITY_IDS_BY_CLASS_NAME));
+    if (cache instanceof InstrumentedCache instrumentedCache) {
+      instrumentedCache.evictIf(key -> !(key instanceof Class<?> keyClass)
+                                       || classes.stream().anyMatch(keyClass::isAssignableFrom));
+    } else {
+      cache.clear();
+    }
   }
 
   public void putToCache(AbstractRepository repository, HasEntityIdentifier entity, Map<String, Object[]> changeFields) {
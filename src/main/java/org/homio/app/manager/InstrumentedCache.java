@@ -0,0 +1,86 @@
+package org.homio.app.manager;
+
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * ConcurrentMapCache that counts hits, misses and evicted entries. Counters are also visible in 'metrics' console tab as
+ * 'cache.[name].hit/miss/eviction'
+ */
+public class InstrumentedCache extends ConcurrentMapCache {
+
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  public InstrumentedCache(@NotNull String name, boolean allowNullValues) {
+    super(name, new ConcurrentHashMap<>(256), allowNullValues);
+    this.hits = AppMetrics.counter("cache." + name + ".hit");
+    this.misses = AppMetrics.counter("cache." + name + ".miss");
+    this.evictions = AppMetrics.counter("cache." + name + ".eviction");
+  }
+
+  @Override
+  protected @Nullable Object lookup(@NotNull Object key) {
+    Object value = super.lookup(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  @Override
+  public void evict(@NotNull Object key) {
+    evictIfPresent(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(@NotNull Object key) {
+    boolean evicted = super.evictIfPresent(key);
+    if (evicted) {
+      evictions.increment();
+    }
+    return evicted;
+  }
+
+  /**
+   * Evict all entries which key matches predicate
+   */
+  public void evictIf(@NotNull Predicate<Object> keyPredicate) {
+    getNativeCache().keySet().removeIf(key -> {
+      if (keyPredicate.test(key)) {
+        evictions.increment();
+        return true;
+      }
+      return false;
+    });
+  }
+
+  @Override
+  public void clear() {
+    invalidate();
+  }
+
+  @Override
+  public boolean invalidate() {
+    int size = getNativeCache().size();
+    boolean notEmpty = super.invalidate();
+    evictions.add(size);
+    return notEmpty;
+  }
+
+  public @NotNull CacheStats getStats() {
+    return new CacheStats(getName(), getNativeCache().size(), hits.sum(), misses.sum(), evictions.sum());
+  }
+
+  public record CacheStats(String name, int size, long hits, long misses, long evictions) {
+  }
+}
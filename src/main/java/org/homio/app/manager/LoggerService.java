@@ -17,14 +17,13 @@ import org.homio.api.exception.ServerException;
 import org.homio.api.util.CommonUtils;
 import org.homio.app.manager.common.ContextImpl;
 import org.homio.app.spring.ContextCreated;
+import org.homio.app.utils.LogFileIndex;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.StringUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
@@ -44,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -54,30 +54,16 @@ import java.util.function.Consumer;
 @RequiredArgsConstructor
 public class LoggerService implements ContextCreated {
 
+  // max lines returned by single getLogFileContent call
+  private static final int MAX_READ_LINES = 10_000;
+
   public final Context context;
+  private final Map<Path, LogFileIndex> logFileIndexes = new ConcurrentHashMap<>();
 
   private static String escapeName(String name) {
     return name.replaceAll("[^A-Za-z0-9_]", "");
   }
 
-  private static int countLines(Path path) throws IOException {
-    try (InputStream is = Files.newInputStream(path)) {
-      byte[] c = new byte[1024];
-      int count = 0;
-      int readChars;
-      boolean empty = true;
-      while ((readChars = is.read(c)) != -1) {
-        empty = false;
-        for (int i = 0; i < readChars; ++i) {
-          if (c[i] == '\n') {
-            ++count;
-          }
-        }
-      }
-      return (count == 0 && !empty) ? 1 : count;
-    }
-  }
-
   @Override
   public void onContextCreated(ContextImpl context) throws Exception {
     Files.walkFileTree(CommonUtils.getLogsPath(), new SimpleFileVisitor<>() {
@@ -107,6 +93,8 @@ public class LoggerService implements ContextCreated {
   public Logger getLogger(String group, String fileName) {
     Path logFile = getOrCreateLogFile(group, fileName, true);
     try {
+      // PrintStream truncates file
+      resetLogFileIndex(logFile);
       PrintStream logOutputStream = new PrintStream(logFile.toFile());
       return getLogger(logOutputStream);
     } catch (Exception ex) {
@@ -120,6 +108,7 @@ public class LoggerService implements ContextCreated {
     try {
       Path logFile = getOrCreateLogFile(group, scriptEntity, true);
       log.info("Requested log file <{}>", logFile);
+      resetLogFileIndex(logFile);
       PrintStream logOutputStream = new PrintStream(logFile.toFile());
       return getLogger(logOutputStream);
     } catch (Exception e) {
@@ -133,32 +122,52 @@ public class LoggerService implements ContextCreated {
   }
 
   public int getLogFileLineCount(String key, BaseEntity scriptEntity) throws IOException {
-    return countLines(getOrCreateLogFile(key, scriptEntity, true));
+    return (int) getLogFileIndex(getOrCreateLogFile(key, scriptEntity, true)).getLineCount();
   }
 
   public void clearLogs(String key, BaseEntity scriptEntity) throws IOException {
     Path path = getOrCreateLogFile(key, scriptEntity, true);
     Files.write(path, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+    resetLogFileIndex(path);
   }
 
   public List<String> getLogFileContent(String key, Integer fromLine, BaseEntity scriptEntity) {
+    return getLogFileContent(key, fromLine, MAX_READ_LINES, scriptEntity);
+  }
+
+  public List<String> getLogFileContent(String key, Integer fromLine, int maxLines, BaseEntity scriptEntity) {
     Path logFile = getOrCreateLogFile(key, scriptEntity, true);
-    List<String> result = new ArrayList<>();
     try {
-      try (BufferedReader br = Files.newBufferedReader(logFile, Charset.defaultCharset())) {
-        String line;
-        int index = 0;
-        while ((line = br.readLine()) != null) {
-          if (index >= fromLine) {
-            result.add(line);
-          }
-          index++;
-        }
-      }
+      return getLogFileIndex(logFile).readLines(fromLine == null ? 0 : fromLine, maxLines, Charset.defaultCharset());
     } catch (IOException ex) {
       throw new ServerException(ex);
     }
-    return result;
+  }
+
+  public List<String> getLogFileTail(String key, int lines, BaseEntity scriptEntity) {
+    return getLogFileTail(getOrCreateLogFile(key, scriptEntity, true), lines);
+  }
+
+  /**
+   * Read at most MAX_READ_LINES last lines of any log file
+   */
+  public List<String> getLogFileTail(Path logFile, int lines) {
+    try {
+      return LogFileIndex.tail(logFile, Math.min(lines, MAX_READ_LINES), Charset.defaultCharset());
+    } catch (IOException ex) {
+      throw new ServerException(ex);
+    }
+  }
+
+  private LogFileIndex getLogFileIndex(Path logFile) {
+    return logFileIndexes.computeIfAbsent(logFile, LogFileIndex::new);
+  }
+
+  private void resetLogFileIndex(Path logFile) {
+    LogFileIndex index = logFileIndexes.get(logFile);
+    if (index != null) {
+      index.reset();
+    }
   }
 
   private Path getOrCreateLogFile(String group, String fileName, boolean allowCreate) {
@@ -0,0 +1,161 @@
+package org.homio.app.manager;
+
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * All script engines share single polyglot Engine, so parsed and JIT compiled code of same Source survives between script runs.
+ * Sources are cached by hash of script text. Fresh engines (each with own polyglot Context) are pre-warmed in background
+ * into bounded queue to take context creation out of script run. It's not a pool: engines are not returned, and if
+ * queue is empty new engine is created in caller thread, so number of live contexts isn't limited
+ */
+@Log4j2
+final class ScriptEngineProvider {
+
+  private static final int MAX_CACHED_SOURCES = 256;
+
+  private final Engine engine = Engine.newBuilder().option("engine.WarnInterpreterOnly", "false").build();
+  private final Map<String, Source> sources = new LinkedHashMap<>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+      return size() > MAX_CACHED_SOURCES;
+    }
+  };
+  private final BlockingQueue<GraalJSScriptEngine> prewarmedEngines;
+  private final ExecutorService warmupExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "script-engine-warmup");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final LongAdder cacheHits = AppMetrics.counter("script.source.cache.hit");
+  private final LongAdder cacheMisses = AppMetrics.counter("script.source.cache.miss");
+  private final LongAdder prewarmMisses = AppMetrics.counter("script.engine.prewarm.miss");
+  private final AppMetrics.Timer compileTimer = AppMetrics.timer("script.compile");
+  private final AppMetrics.Timer executeTimer = AppMetrics.timer("script.execute");
+
+  ScriptEngineProvider(int prewarmSize) {
+    this.prewarmedEngines = new ArrayBlockingQueue<>(Math.max(1, prewarmSize));
+    AppMetrics.gauge("script.source.cache.hit-rate", () -> {
+      long hits = cacheHits.sum();
+      long total = hits + cacheMisses.sum();
+      return total == 0 ? 0 : String.format("%.1f%%", hits * 100D / total);
+    });
+    AppMetrics.gauge("script.engine.prewarmed", prewarmedEngines::size);
+    warmupExecutor.execute(this::prewarm);
+  }
+
+  /**
+   * @return new engine with own polyglot context. Engine isn't returned back, caller owns it
+   */
+  public @NotNull GraalJSScriptEngine takeEngine() {
+    GraalJSScriptEngine scriptEngine = prewarmedEngines.poll();
+    if (scriptEngine == null) {
+      prewarmMisses.increment();
+      scriptEngine = createEngine();
+    }
+    warmupExecutor.execute(this::prewarm);
+    return scriptEngine;
+  }
+
+  /**
+   * Parse script in engine's context. Parsing of cached Source reuses already compiled call target from shared Engine
+   */
+  public @NotNull CompiledScript compile(@NotNull GraalJSScriptEngine scriptEngine, @NotNull String javaScript) {
+    long started = System.nanoTime();
+    try {
+      Value parsed = scriptEngine.getPolyglotContext().parse(getSource(javaScript));
+      return new PolyglotCompiledScript(scriptEngine, parsed, executeTimer);
+    } finally {
+      compileTimer.recordSince(started);
+    }
+  }
+
+  public @NotNull AppMetrics.Timer getExecuteTimer() {
+    return executeTimer;
+  }
+
+  private Source getSource(String javaScript) {
+    String hash = DigestUtils.sha256Hex(javaScript);
+    synchronized (sources) {
+      Source source = sources.get(hash);
+      if (source != null) {
+        cacheHits.increment();
+        return source;
+      }
+      cacheMisses.increment();
+      source = Source.newBuilder("js", javaScript, "script-" + hash + ".js").cached(true).buildLiteral();
+      sources.put(hash, source);
+      return source;
+    }
+  }
+
+  private void prewarm() {
+    try {
+      while (prewarmedEngines.remainingCapacity() > 0) {
+        if (!prewarmedEngines.offer(createEngine())) {
+          return;
+        }
+      }
+    } catch (Exception ex) {
+      log.warn("Unable to prepare script engine: {}", ex.getMessage());
+    }
+  }
+
+  private GraalJSScriptEngine createEngine() {
+    GraalJSScriptEngine scriptEngine = GraalJSScriptEngine.create(engine,
+      // 'js.nashorn-compat' is taken from system properties by shared engine
+      Context.newBuilder("js").allowAllAccess(true));
+    // force context creation out of script thread
+    scriptEngine.getPolyglotContext();
+    return scriptEngine;
+  }
+
+  /**
+   * Evaluates already parsed source. Bindings are taken from engine, so ScriptContext parameter is ignored
+   */
+  private static final class PolyglotCompiledScript extends CompiledScript {
+
+    private final GraalJSScriptEngine scriptEngine;
+    private final Value parsed;
+    private final AppMetrics.Timer executeTimer;
+
+    private PolyglotCompiledScript(GraalJSScriptEngine scriptEngine, Value parsed, AppMetrics.Timer executeTimer) {
+      this.scriptEngine = scriptEngine;
+      this.parsed = parsed;
+      this.executeTimer = executeTimer;
+    }
+
+    @Override
+    public Object eval(ScriptContext context) {
+      long started = System.nanoTime();
+      try {
+        return parsed.execute().as(Object.class);
+      } finally {
+        executeTimer.recordSince(started);
+      }
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+      return scriptEngine;
+    }
+  }
+}
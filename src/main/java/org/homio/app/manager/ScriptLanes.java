@@ -0,0 +1,177 @@
+package org.homio.app.manager;
+
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
+import lombok.extern.log4j.Log4j2;
+import org.homio.api.util.CommonUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.script.ScriptEngine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes script evaluations in N lanes. Calls of same script always go to same lane, so they keep order, while stuck script
+ * blocks only own lane. Stuck script is stopped by interrupting/cancelling its polyglot Context
+ */
+@Log4j2
+public final class ScriptLanes {
+
+  private static final Duration INTERRUPT_TIMEOUT = Duration.ofSeconds(1);
+
+  private final Lane[] lanes;
+
+  ScriptLanes(int laneCount) {
+    lanes = new Lane[Math.max(1, laneCount)];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new Lane(i);
+      lanes[i].thread.start();
+    }
+  }
+
+  public <T> T execute(@NotNull String entityID, @Nullable ScriptEngine engine, @NotNull Callable<T> task,
+                       @NotNull Duration timeout) throws Exception {
+    return execute(entityID, engine, task, timeout, null);
+  }
+
+  /**
+   * Execute task in script's lane and wait for result
+   *
+   * @param engine          - engine which context has to be interrupted if task is stuck
+   * @param onContextClosed - called if engine's context didn't respond to interrupt and was closed, so owner has to drop
+   *                        engine
+   */
+  public <T> T execute(@NotNull String entityID, @Nullable ScriptEngine engine, @NotNull Callable<T> task,
+                       @NotNull Duration timeout, @Nullable Runnable onContextClosed) throws Exception {
+    if (isLaneThread()) {
+      // nested script call from another script. Waiting for own lane would be a deadlock
+      return task.call();
+    }
+    LaneTask<T> laneTask = new LaneTask<>(entityID, engine, task, onContextClosed);
+    lanes[Math.floorMod(entityID.hashCode(), lanes.length)].queue.add(laneTask);
+    try {
+      return laneTask.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      cancel(laneTask);
+      throw new ExecutionException("Script evaluation stuck. Got TimeoutException: " + CommonUtils.getErrorMessage(ex), ex);
+    }
+  }
+
+  /**
+   * Remove queued and stop running tasks of script
+   */
+  public void cancel(@NotNull String entityID) {
+    for (Lane lane : lanes) {
+      for (LaneTask<?> task : lane.queue) {
+        if (task.entityID.equals(entityID)) {
+          lane.queue.remove(task);
+          task.cancel(false);
+        }
+      }
+      LaneTask<?> running = lane.running;
+      if (running != null && running.entityID.equals(entityID)) {
+        cancel(running);
+      }
+    }
+  }
+
+  public @NotNull List<LaneState> getLaneStates() {
+    List<LaneState> states = new ArrayList<>(lanes.length);
+    for (Lane lane : lanes) {
+      LaneTask<?> running = lane.running;
+      long runningSince = lane.runningSince;
+      states.add(new LaneState(lane.index, lane.queue.size(), running == null ? null : running.entityID,
+        running == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runningSince)));
+    }
+    return states;
+  }
+
+  private void cancel(LaneTask<?> task) {
+    boolean running = false;
+    for (Lane lane : lanes) {
+      running |= lane.running == task;
+    }
+    task.cancel(false);
+    if (running && task.engine instanceof GraalJSScriptEngine graalEngine) {
+      // task is running. Interrupt throws in script thread, close(true) is last resort for code that ignores interrupt
+      org.graalvm.polyglot.Context polyglotContext = graalEngine.getPolyglotContext();
+      try {
+        polyglotContext.interrupt(INTERRUPT_TIMEOUT);
+      } catch (TimeoutException ex) {
+        log.warn("[{}]: Script doesn't respond to interrupt. Cancel script context", task.entityID);
+        if (task.onContextClosed != null) {
+          task.onContextClosed.run();
+        }
+        polyglotContext.close(true);
+      } catch (Exception ex) {
+        log.warn("[{}]: Unable to interrupt script: {}", task.entityID, CommonUtils.getErrorMessage(ex));
+      }
+    }
+  }
+
+  private boolean isLaneThread() {
+    for (Lane lane : lanes) {
+      if (lane.thread == Thread.currentThread()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public record LaneState(int index, int queueSize, @Nullable String runningEntityID, long runningMs) {
+  }
+
+  private static final class LaneTask<T> extends FutureTask<T> {
+
+    private final String entityID;
+    private final @Nullable ScriptEngine engine;
+    private final @Nullable Runnable onContextClosed;
+
+    private LaneTask(String entityID, @Nullable ScriptEngine engine, Callable<T> callable, @Nullable Runnable onContextClosed) {
+      super(callable);
+      this.entityID = entityID;
+      this.engine = engine;
+      this.onContextClosed = onContextClosed;
+    }
+  }
+
+  private static final class Lane {
+
+    private final int index;
+    private final BlockingQueue<LaneTask<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile @Nullable LaneTask<?> running;
+    private volatile long runningSince;
+
+    private Lane(int index) {
+      this.index = index;
+      this.thread = new Thread(() -> {
+        while (true) {
+          try {
+            LaneTask<?> task = queue.take();
+            runningSince = System.nanoTime();
+            running = task;
+            try {
+              task.run();
+            } finally {
+              running = null;
+            }
+          } catch (InterruptedException ex) {
+            return;
+          } catch (Exception ex) {
+            log.error("Error while execute script task", ex);
+          }
+        }
+      }, "ScriptLane-" + index);
+      this.thread.setDaemon(true);
+    }
+  }
+}
@@ -1,13 +1,12 @@
 package org.homio.app.manager;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.homio.api.Context;
-import org.homio.api.ContextBGP;
-import org.homio.api.ContextBGP.ScheduleBuilder;
 import org.homio.api.exception.ServerException;
 import org.homio.api.model.Status;
 import org.homio.api.state.State;
@@ -21,24 +20,14 @@ import org.homio.app.utils.JavaScriptBinder;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Component;
 
-import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import java.io.PrintStream;
-import java.io.StringReader;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static org.homio.api.util.JsonUtils.OBJECT_MAPPER;
@@ -56,7 +45,10 @@ public class ScriptService implements ContextCreated {
   private final LoggerService loggerService;
   private final Context context;
 
-  private ExecutorService createCompiledScriptSingleCallExecutorService = Executors.newSingleThreadExecutor();
+  private static final Duration SCRIPT_TIMEOUT = Duration.ofSeconds(60);
+
+  private ScriptEngineProvider scriptEngineProvider;
+  private ScriptLanes scriptLanes;
 
   private static void appendFunc(List<Object> script, String funcName, String separator, String javaScript) {
     String result = ScriptEntity.getFunctionWithName(javaScript, funcName);
@@ -67,6 +59,8 @@ public class ScriptService implements ContextCreated {
 
   @Override
   public void onContextCreated(ContextImpl context) throws Exception {
+    getScriptEngineProvider();
+    getScriptLanes();
     for (ScriptEntity scriptEntity : this.context.db().findAll(ScriptEntity.class)) {
       if (scriptEntity.isAutoStart()) {
         this.context.bgp().builder(scriptEntity.getEntityID())
@@ -93,6 +87,11 @@ public class ScriptService implements ContextCreated {
 
   public void stopThread(ScriptEntity scriptEntity) {
     this.context.bgp().cancelThread(scriptEntity.getEntityID());
+    getScriptLanes().cancel(scriptEntity.getEntityID());
+  }
+
+  public List<ScriptLanes.LaneState> getLaneStates() {
+    return getScriptLanes().getLaneStates();
   }
 
   /**
@@ -126,8 +125,10 @@ public class ScriptService implements ContextCreated {
     // TODO: UI scripts should be separated type
     // appendFunc(script, "readyOnClient", "READY_BLOCK", compileScriptContext.getFormattedJavaScript());
 
+    long started = System.nanoTime();
     Object value = ((Invocable) compileScriptContext.getCompiledScript().getEngine())
       .invokeFunction("run", compileScriptContext.getJsonParams());
+    getScriptEngineProvider().getExecuteTimer().recordSince(started);
         /* TODO: if (value instanceof ScriptObjectMirror) {
             ScriptObjectMirror obj = (ScriptObjectMirror) value;
             Map<String, Object> map = new HashMap<>();
@@ -145,7 +146,8 @@ public class ScriptService implements ContextCreated {
   }
 
   public CompileScriptContext createCompiledScript(ScriptEntity scriptEntity, PrintStream logPrintStream, State state) {
-    ScriptEngine engine = new ScriptEngineManager().getEngineByName("graal.js");
+    ScriptEngineProvider provider = getScriptEngineProvider();
+    GraalJSScriptEngine engine = provider.takeEngine();
     if (logPrintStream != null) {
       engine.put(JavaScriptBinder.log.name(), loggerService.getLogger(logPrintStream));
     }
@@ -165,18 +167,9 @@ public class ScriptService implements ContextCreated {
     CompiledScript compiled;
     String formattedJavaScript;
     try {
-      formattedJavaScript = scriptEntity.getFormattedJavaScript(context, (Compilable) engine);
-
-      compiled = ((Compilable) engine).compile(new StringReader(formattedJavaScript));
-      Future<Object> future = createCompiledScriptSingleCallExecutorService.submit((Callable<Object>) compiled::eval);
-      try {
-        future.get(60, TimeUnit.SECONDS);
-      } catch (TimeoutException ex) {
-        future.cancel(true);
-        createCompiledScriptSingleCallExecutorService.shutdownNow();
-        createCompiledScriptSingleCallExecutorService = Executors.newSingleThreadExecutor();
-        throw new ExecutionException("Script evaluation stuck. Got TimeoutException: " + CommonUtils.getErrorMessage(ex), ex);
-      }
+      formattedJavaScript = scriptEntity.getFormattedJavaScript(context, engine);
+      compiled = provider.compile(engine, formattedJavaScript);
+      getScriptLanes().execute(scriptEntity.getEntityID(), engine, compiled::eval, SCRIPT_TIMEOUT);
     } catch (Exception ex) {
       log.error("Can not compile script: <{}>. Msg: <{}>", scriptEntity.getEntityID(), ex.getMessage());
       throw new ServerException(ex);
@@ -184,20 +177,37 @@ public class ScriptService implements ContextCreated {
     return new CompileScriptContext(compiled, formattedJavaScript, jsonParams);
   }
 
+  private synchronized ScriptLanes getScriptLanes() {
+    if (scriptLanes == null) {
+      int defaultLanes = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+      scriptLanes = new ScriptLanes(context.setting().getEnv("script-lanes", defaultLanes, true));
+    }
+    return scriptLanes;
+  }
+
+  private synchronized ScriptEngineProvider getScriptEngineProvider() {
+    if (scriptEngineProvider == null) {
+      scriptEngineProvider = new ScriptEngineProvider(context.setting().getEnv("script-context-prewarm", 4, true));
+    }
+    return scriptEngineProvider;
+  }
+
+  public @NotNull State callJavaScriptOnce(ScriptEntity scriptEntity, CompileScriptContext compiledScriptContext) throws ExecutionException {
+    return callJavaScriptOnce(scriptEntity.getEntityID(), compiledScriptContext);
+  }
+
   /**
-   * Run java script once and interrupt it if too long works
+   * Run java script once and interrupt it if too long works. Context is marked as closed if script didn't respond to
+   * interrupt, so callers which cache context have to recreate it
+   *
+   * @param entityID - id of script owner. Scripts of same owner are executed in order
    */
-  public @NotNull State callJavaScriptOnce(ScriptEntity scriptEntity, CompileScriptContext compiledScriptContext) throws ExecutionException {
-    ScheduleBuilder<State> builder = context.bgp().builder(scriptEntity.getEntityID());
-    ContextBGP.ThreadContext<State> threadContext =
-      builder
-        .throwOnError(true)
-        .execute(arg -> runJavaScript(compiledScriptContext));
+  public @NotNull State callJavaScriptOnce(String entityID, CompileScriptContext compiledScriptContext) throws ExecutionException {
     try {
-      State value = threadContext.await(Duration.ofSeconds(60));
+      State value = getScriptLanes().execute(entityID, compiledScriptContext.getEngine(),
+        () -> runJavaScript(compiledScriptContext), SCRIPT_TIMEOUT, compiledScriptContext::markClosed);
       return value == null ? State.of("") : value;
     } catch (Exception ex) {
-      threadContext.cancel();
       throw new ExecutionException("Exception: " + CommonUtils.getErrorMessage(ex), ex);
     }
   }
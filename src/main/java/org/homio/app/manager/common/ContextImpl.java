@@ -57,6 +57,7 @@ import org.homio.app.ssh.SshTmateEntity;
 import org.homio.app.utils.HardwareUtils;
 import org.homio.app.utils.NotificationUtils;
 import org.homio.app.utils.OptionUtil;
+import org.homio.app.utils.PrefixTrie;
 import org.homio.app.video.ffmpeg.FfmpegHardwareRepository;
 import org.homio.app.workspace.LockManagerImpl;
 import org.homio.app.workspace.WorkspaceService;
@@ -84,6 +85,7 @@ public class ContextImpl implements Context {
       new LinkedHashSet<>();
   public static Map<String, Class<? extends EntityFieldMetadata>> uiFieldClasses;
   public static Map<String, AbstractRepository> repositoriesByPrefix;
+  private static volatile PrefixTrie<AbstractRepository> repositoryTrie;
   public static ContextImpl INSTANCE;
   private static AllDeviceRepository allDeviceRepository;
 
@@ -157,10 +159,7 @@ public class ContextImpl implements Context {
     this.cacheService = cacheService;
 
     ContextImpl.allDeviceRepository = allDeviceRepository;
-    ContextImpl.repositoriesByPrefix =
-        repositories.stream()
-            .filter(r -> !r.getClass().equals(AllDeviceRepository.class))
-            .collect(Collectors.toMap(AbstractRepository::getPrefix, r -> r));
+    rebuildRepositories(repositories);
 
     this.contextHardware = new ContextHardwareImpl(this, mhr, nhr);
     this.contextSetting = new ContextSettingImpl(this, environment, classFinder);
@@ -195,12 +194,16 @@ public class ContextImpl implements Context {
   }
 
   public static AbstractRepository getRepository(@NotNull String entityIdOrPrefix) {
-    for (AbstractRepository repository : ContextImpl.repositoriesByPrefix.values()) {
-      if (repository.isMatch(entityIdOrPrefix)) {
-        return repository;
-      }
-    }
-    return allDeviceRepository;
+    AbstractRepository repository = repositoryTrie.findByPrefix(entityIdOrPrefix);
+    return repository == null ? allDeviceRepository : repository;
+  }
+
+  private static void rebuildRepositories(Collection<AbstractRepository> repositories) {
+    ContextImpl.repositoriesByPrefix =
+        repositories.stream()
+            .filter(r -> !r.getClass().equals(AllDeviceRepository.class))
+            .collect(Collectors.toMap(AbstractRepository::getPrefix, r -> r, (r1, r2) -> r1));
+    repositoryTrie = new PrefixTrie<>(repositoriesByPrefix);
   }
 
   public static Object getFetchType(String subType) {
@@ -476,6 +479,8 @@ public class ContextImpl implements Context {
   }
 
   public void rebuildRepositoryByPrefixMap() {
+    // installed/removed addons bring/take away own repositories
+    rebuildRepositories(getBeansOfType(AbstractRepository.class));
     uiFieldClasses =
         classFinder.getClassesWithParent(EntityFieldMetadata.class).stream()
             .collect(Collectors.toMap(Class::getSimpleName, s -> s));
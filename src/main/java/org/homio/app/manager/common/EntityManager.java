@@ -44,7 +44,8 @@ public class EntityManager {
   }
 
   @SneakyThrows
-  @Cacheable(ENTITY_IDS_BY_CLASS_NAME)
+  // repository is resolved from class, so class is enough for key and allows to evict by class
+  @Cacheable(value = ENTITY_IDS_BY_CLASS_NAME, key = "#p0")
   public @NotNull Set<String> getEntityIDsByEntityClassFullName(Class<BaseEntity> entityClass, AbstractRepository repository) {
     Predicate<BaseEntity> filter = baseEntity -> true;
 
@@ -23,6 +23,7 @@ import org.homio.app.json.BgpProcessResponse;
 import org.homio.app.manager.bgp.InternetAvailabilityBgpService;
 import org.homio.app.manager.bgp.WatchdogBgpService;
 import org.homio.app.manager.common.ContextImpl;
+import org.homio.app.utils.AppMetrics;
 import org.homio.app.utils.CollectionUtils.LastBytesBuffer;
 import org.homio.hquery.ProgressBar;
 import org.homio.hquery.StreamGobbler;
@@ -30,6 +31,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
 import org.jvnet.winp.WinProcess;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.security.core.Authentication;
@@ -63,6 +66,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -78,6 +82,8 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 @Log4j2
 public class ContextBGPImpl implements ContextBGP {
 
+  private static final int MAX_VIRTUAL_THREADS = 10_000;
+
   @Getter
   private final @Accessors(fluent = true) ContextImpl context;
   private final ThreadPoolTaskScheduler taskScheduler;
@@ -101,6 +107,7 @@ public class ContextBGPImpl implements ContextBGP {
 
   private final Map<String, Map<String, Consumer<Boolean>>> pingMap = new ConcurrentHashMap<>();
   private ThreadContext<Void> pingProcess;
+  private TaskScheduler virtualThreadScheduler;
 
   public ContextBGPImpl(ContextImpl context, ThreadPoolTaskScheduler taskScheduler) {
     this.context = context;
@@ -311,6 +318,15 @@ public class ContextBGPImpl implements ContextBGP {
 
   @Override
   public <T> @NotNull ScheduleBuilder<T> builder(@NotNull String name) {
+    return builder(name, false);
+  }
+
+  /**
+   * @param virtualThread - run command on virtual thread instead of shared pool of task scheduler. Fits long living tasks
+   *                      that mostly wait on locks, like workspace scripts
+   */
+  public <T> @NotNull ScheduleBuilder<T> builder(@NotNull String name, boolean virtualThread) {
+    TaskScheduler taskScheduler = virtualThread ? getVirtualThreadScheduler() : this.taskScheduler;
     ThreadContextImpl<T> context = new ThreadContextImpl<>();
     context.name = name;
     context.scheduleType = ScheduleType.SINGLE;
@@ -450,6 +466,20 @@ public class ContextBGPImpl implements ContextBGP {
     };
   }
 
+  private synchronized TaskScheduler getVirtualThreadScheduler() {
+    if (virtualThreadScheduler == null) {
+      // core size only limits count of parallel tasks, threads are created on demand and die when idle
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(MAX_VIRTUAL_THREADS,
+        Thread.ofVirtual().name("vth-async-", 0).factory());
+      executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+      executor.allowCoreThreadTimeOut(true);
+      executor.setRemoveOnCancelPolicy(true);
+      AppMetrics.gauge("bgp.virtual.active", executor::getActiveCount);
+      virtualThreadScheduler = new ConcurrentTaskScheduler(executor);
+    }
+    return virtualThreadScheduler;
+  }
+
   @Override
   public @NotNull ProcessBuilder processBuilder(@NotNull String name) {
     ProcessContextImpl processContext = new ProcessContextImpl();
@@ -1,5 +1,7 @@
 package org.homio.app.manager.common.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.pivovarit.function.ThrowingBiConsumer;
 import com.pivovarit.function.ThrowingRunnable;
 import jakarta.persistence.EntityManagerFactory;
@@ -38,11 +40,13 @@ import org.homio.app.model.entity.widget.WidgetEntity;
 import org.homio.app.model.var.WorkspaceGroup;
 import org.homio.app.model.var.WorkspaceVariable;
 import org.homio.app.service.mem.InMemoryDB;
+import org.homio.app.utils.AppMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -53,7 +57,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -64,6 +71,11 @@ import static org.apache.xmlbeans.XmlBeans.getTitle;
 @Log4j2
 public class ContextEventImpl implements ContextEvent {
 
+  // max time producer may be slowed down if event lane is overloaded
+  private static final long MAX_BACKPRESSURE_WAIT = TimeUnit.SECONDS.toNanos(1);
+  // max distinct event keys with cached regexp/coalesce matches. Keys may be unbounded (i.e. contain ids)
+  private static final int MAX_CACHED_KEY_MATCHES = 10_000;
+
   @Getter
   private final EntityListener entityUpdateStatusListeners = new EntityListener();
 
@@ -79,8 +91,14 @@ public class ContextEventImpl implements ContextEvent {
   private final @Getter Set<OptionModel> events = new HashSet<>();
   private final @Getter Map<String, State> lastValues = new ConcurrentHashMap<>();
 
+  // discriminator -> key -> listener
   private final Map<String, Map<String, Consumer<State>>> eventListeners = new ConcurrentHashMap<>();
+  // inverted index of eventListeners: key -> discriminator -> listener
+  private final Map<String, Map<String, Consumer<State>>> eventListenersByKey = new ConcurrentHashMap<>();
   private final Map<String, Map<Pattern, BiConsumer<String, State>>> eventRegexpListeners = new ConcurrentHashMap<>();
+  // cached result of matching event key against all eventRegexpListeners. Reset on any regexp listener change
+  private final Cache<String, List<BiConsumer<String, State>>> eventRegexpMatches =
+    CacheBuilder.newBuilder().maximumSize(MAX_CACHED_KEY_MATCHES).build();
 
   @Getter
   private final List<BiConsumer<String, Object>> globalEvenListeners = new ArrayList<>();
@@ -89,10 +107,22 @@ public class ContextEventImpl implements ContextEvent {
   private final ContextImpl context;
 
   private final BlockingQueue<EntityUpdate> entityUpdatesQueue = new LinkedBlockingQueue<>();
+  // holds events fired before lanes are started
   private final BlockingQueue<Event> eventQueue = new LinkedBlockingQueue<>();
+  private volatile EventLane[] eventLanes;
+  private int eventLaneCapacity;
 
   private final Map<String, EventTTL> eventsTTL = new ConcurrentHashMap<>();
 
+  // keys/patterns of high-frequency events where only latest queued value matters
+  private final Set<String> coalescedKeys = ConcurrentHashMap.newKeySet();
+  private final List<Pattern> coalescedPatterns = new CopyOnWriteArrayList<>();
+  // cached result of matching event key against coalescedKeys/coalescedPatterns
+  private final Cache<String, Boolean> coalescedMatches =
+    CacheBuilder.newBuilder().maximumSize(MAX_CACHED_KEY_MATCHES).build();
+  // key -> not yet dispatched event. Size is bounded by count of distinct coalesced keys
+  private final Map<String, PendingEvent> pendingEvents = new ConcurrentHashMap<>();
+
   public ContextEventImpl(ContextImpl context, EntityManagerFactory entityManagerFactory) {
     this.context = context;
     registerEntityListeners(entityManagerFactory);
@@ -174,6 +204,17 @@ public class ContextEventImpl implements ContextEvent {
     if (removedEvents != null) {
       for (String key : removedEvents.keySet()) {
         eventsTTL.remove(discriminator + key);
+        removeFromKeyIndex(discriminator, key);
+      }
+    }
+  }
+
+  private void removeFromKeyIndex(String discriminator, String key) {
+    Map<String, Consumer<State>> listeners = eventListenersByKey.get(key);
+    if (listeners != null) {
+      listeners.remove(discriminator);
+      if (listeners.isEmpty()) {
+        eventListenersByKey.remove(key);
       }
     }
   }
@@ -189,6 +230,7 @@ public class ContextEventImpl implements ContextEvent {
         eventListeners.remove(discriminator);
       }
     }
+    removeFromKeyIndex(discriminator, key);
   }
 
   @Override
@@ -203,12 +245,14 @@ public class ContextEventImpl implements ContextEvent {
   }
 
   @Override
-  public @NotNull ContextEvent addEventListener(@NotNull String key, @Nullable String discriminator, @Nullable Duration ttl, @NotNull Consumer<State> listener) {
+  public synchronized @NotNull ContextEvent addEventListener(@NotNull String key, @Nullable String discriminator, @Nullable Duration ttl,
+                                                             @NotNull Consumer<State> listener) {
     discriminator = discriminator == null ? "" : discriminator;
     if (ttl != null) {
       eventsTTL.put(discriminator + key, new EventTTL(key, discriminator, ttl, System.currentTimeMillis()));
     }
     eventListeners.computeIfAbsent(discriminator, d -> new ConcurrentHashMap<>()).put(key, listener);
+    eventListenersByKey.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(discriminator, listener);
     return this;
   }
 
@@ -221,6 +265,7 @@ public class ContextEventImpl implements ContextEvent {
     }
     discriminator = discriminator == null ? "" : discriminator;
     eventRegexpListeners.computeIfAbsent(discriminator, d -> new ConcurrentHashMap<>()).put(regexp, listener);
+    eventRegexpMatches.invalidateAll();
     return this;
   }
 
@@ -327,15 +372,34 @@ public class ContextEventImpl implements ContextEvent {
     return this;
   }
 
+  /**
+   * Enable 'latest value wins' mode for event key. While event with such key is waiting in queue, newer value replaces queued one
+   * instead of adding new event, so listeners may skip intermediate values but never receive stale ones
+   */
+  public void addCoalescedEvent(@NotNull String key) {
+    coalescedKeys.add(key);
+    coalescedMatches.invalidateAll();
+  }
+
+  public void addCoalescedEvents(@NotNull Pattern keyPattern) {
+    coalescedPatterns.add(keyPattern);
+    coalescedMatches.invalidateAll();
+  }
+
+  public void removeCoalescedEvent(@NotNull String key) {
+    coalescedKeys.remove(key);
+    coalescedMatches.invalidateAll();
+  }
+
+  public void removeCoalescedEvents(@NotNull Pattern keyPattern) {
+    coalescedPatterns.removeIf(pattern -> pattern.pattern().equals(keyPattern.pattern()));
+    coalescedMatches.invalidateAll();
+  }
+
   @Override
   public int getEventCount(@NotNull String key) {
-    int count = 0;
-    for (Map<String, Consumer<State>> item : eventListeners.values()) {
-      if (item.containsKey(key)) {
-        count++;
-      }
-    }
-    return count;
+    Map<String, Consumer<State>> listeners = eventListenersByKey.get(key);
+    return listeners == null ? 0 : listeners.size();
   }
 
   public void onContextCreated() throws Exception {
@@ -350,31 +414,113 @@ public class ContextEventImpl implements ContextEvent {
         }
       }
     }, "EntityChangeHandler").start();
-    // event handler
-    new Thread(() -> {
-      while (true) {
-        try {
-          Event event = eventQueue.take();
-          for (Map<String, Consumer<State>> eventListenerMap : eventListeners.values()) {
-            Consumer<State> listener = eventListenerMap.get(event.key);
-            if (listener != null) {
-              listener.accept(event.value);
-            }
-          }
-          for (Map<Pattern, BiConsumer<String, State>> entry : eventRegexpListeners.values()) {
-            for (Entry<Pattern, BiConsumer<String, State>> options : entry.entrySet()) {
-              if (options.getKey().matcher(event.key).matches()) {
-                options.getValue().accept(event.key, event.value);
-              }
-            }
+    // event handlers. 'event-lanes: 1' keeps single 'EventHandler' thread as before
+    int defaultLanes = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    int laneCount = Math.max(1, context.setting().getEnv("event-lanes", defaultLanes, true));
+    eventLaneCapacity = Math.max(100, context.setting().getEnv("event-lane-capacity", 10_000, true));
+    // comma separated regexps of coalesced event keys
+    String coalesce = context.setting().getEnv("event-coalesce");
+    if (StringUtils.isNotBlank(coalesce)) {
+      for (String keyPattern : coalesce.split(",")) {
+        if (StringUtils.isNotBlank(keyPattern)) {
+          addCoalescedEvents(Pattern.compile(keyPattern.trim()));
+        }
+      }
+    }
+    EventLane[] lanes = new EventLane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new EventLane(laneCount == 1 ? "EventHandler" : "EventHandler-" + i, i);
+    }
+    AppMetrics.gauge("event.queue.depth", () -> Arrays.stream(lanes).mapToInt(lane -> lane.queue.size()).sum());
+    AppMetrics.gauge("event.listener.keys", eventListenersByKey::size);
+    AppMetrics.gauge("event.coalesce.pending", pendingEvents::size);
+    synchronized (eventQueue) {
+      for (Event event : eventQueue) {
+        lanes[laneIndex(event.key, laneCount)].queue.add(event);
+      }
+      eventQueue.clear();
+      eventLanes = lanes;
+    }
+    for (EventLane lane : lanes) {
+      lane.thread.start();
+    }
+  }
+
+  private void dispatchEvent(Event event) {
+    String key = event.key;
+    State value = event.value;
+    if (event.pending != null) {
+      // from now on new values for key go to new event. Value has to be read after removal to not lose latest update
+      pendingEvents.remove(key, event.pending);
+      value = event.pending.value;
+    }
+    Map<String, Consumer<State>> listeners = eventListenersByKey.get(key);
+    if (listeners != null) {
+      for (Consumer<State> listener : listeners.values()) {
+        listener.accept(value);
+      }
+    }
+    for (BiConsumer<String, State> listener : getRegexpListeners(key)) {
+      listener.accept(key, value);
+    }
+    State finalValue = value;
+    globalEvenListeners.forEach(l -> l.accept(key, finalValue));
+    context.fireAllLock(lockManager -> lockManager.onEvent(key, finalValue, event.created));
+  }
+
+  private boolean isCoalesced(String key) {
+    if (coalescedKeys.isEmpty() && coalescedPatterns.isEmpty()) {
+      return false;
+    }
+    return coalescedMatches.asMap().computeIfAbsent(key, k -> {
+      if (coalescedKeys.contains(k)) {
+        return true;
+      }
+      for (Pattern pattern : coalescedPatterns) {
+        if (pattern.matcher(k).matches()) {
+          return true;
+        }
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Replace value of queued event in place or create new pending event
+   *
+   * @return new pending event that has to be published or null if value was merged into queued event
+   */
+  private @Nullable PendingEvent coalesce(String key, State value) {
+    PendingEvent[] created = new PendingEvent[1];
+    pendingEvents.compute(key, (k, pending) -> {
+      if (pending == null) {
+        created[0] = new PendingEvent(value);
+        return created[0];
+      }
+      pending.value = value;
+      return pending;
+    });
+    if (created[0] == null) {
+      AppMetrics.counter("event.coalesced").increment();
+    }
+    return created[0];
+  }
+
+  private List<BiConsumer<String, State>> getRegexpListeners(String key) {
+    if (eventRegexpListeners.isEmpty()) {
+      return List.of();
+    }
+    return eventRegexpMatches.asMap().computeIfAbsent(key, k -> {
+      List<BiConsumer<String, State>> matches = new ArrayList<>();
+      for (Map<Pattern, BiConsumer<String, State>> entry : eventRegexpListeners.values()) {
+        for (Entry<Pattern, BiConsumer<String, State>> options : entry.entrySet()) {
+          if (options.getKey().matcher(k).matches()) {
+            matches.add(options.getValue());
           }
-          globalEvenListeners.forEach(l -> l.accept(event.key, event.value));
-          context.fireAllLock(lockManager -> lockManager.signalAll(event.key, event.value));
-        } catch (Exception ex) {
-          log.error("Error while execute event handler", ex);
         }
       }
-    }, "EventHandler").start();
+      return matches.isEmpty() ? List.of() : matches;
+    });
   }
 
   private @NotNull ContextEventImpl fireEvent(@NotNull String key, @Nullable State value, boolean compareValues) {
@@ -396,7 +542,32 @@ public class ContextEventImpl implements ContextEvent {
       }
       lastValues.put(key, value);
     }
-    eventQueue.add(new Event(key, value));
+    if (isCoalesced(key)) {
+      PendingEvent pending = coalesce(key, value);
+      if (pending != null) {
+        publishEvent(new Event(key, null, System.nanoTime(), pending));
+      }
+      return;
+    }
+    publishEvent(new Event(key, value, System.nanoTime(), null));
+  }
+
+  private void publishEvent(Event event) {
+    EventLane[] lanes = eventLanes;
+    if (lanes == null) {
+      synchronized (eventQueue) {
+        lanes = eventLanes;
+        if (lanes == null) {
+          eventQueue.add(event);
+          return;
+        }
+      }
+    }
+    lanes[laneIndex(event.key, lanes.length)].publish(event);
+  }
+
+  private static int laneIndex(String key, int laneCount) {
+    return laneCount == 1 ? 0 : Math.floorMod(key.hashCode(), laneCount);
   }
 
   public void registerEntityListeners(EntityManagerFactory entityManagerFactory) {
@@ -581,7 +752,70 @@ public class ContextEventImpl implements ContextEvent {
     }
   }
 
-  private record Event(String key, State value) {
+  /**
+   * @param pending - not null for coalesced event, actual value has to be taken from it on dispatch
+   */
+  private record Event(String key, State value, long created, @Nullable PendingEvent pending) {
+  }
+
+  private static final class PendingEvent {
+
+    private volatile State value;
+
+    private PendingEvent(State value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Events with the same key always go to the same lane, so order per key is kept while slow listener blocks only own lane
+   */
+  private final class EventLane {
+
+    private final BlockingQueue<Event> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private EventLane(String name, int index) {
+      AppMetrics.Timer dispatchTimer = AppMetrics.timer("event.dispatch");
+      this.thread = new Thread(() -> {
+        while (true) {
+          try {
+            Event event = queue.take();
+            long started = System.nanoTime();
+            dispatchEvent(event);
+            dispatchTimer.recordSince(started);
+          } catch (Exception ex) {
+            log.error("Error while execute event handler", ex);
+          }
+        }
+      }, name);
+      AppMetrics.gauge("event.lane." + index + ".depth", queue::size);
+      AppMetrics.gauge("event.lane." + index + ".lag-ms", () -> {
+        Event head = queue.peek();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.created);
+      });
+    }
+
+    private void publish(Event event) {
+      queue.add(event);
+      if (queue.size() > eventLaneCapacity && !isLaneThread()) {
+        // backpressure: slow down producer for a while. Lane threads never wait because listener may fire events itself
+        AppMetrics.counter("event.backpressure").increment();
+        long deadline = System.nanoTime() + MAX_BACKPRESSURE_WAIT;
+        while (queue.size() > eventLaneCapacity && System.nanoTime() < deadline) {
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+      }
+    }
+
+    private boolean isLaneThread() {
+      for (EventLane lane : eventLanes) {
+        if (lane.thread == Thread.currentThread()) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
   private record EntityUpdate(Object entity, EntityUpdateAction itemAction) {
@@ -2,8 +2,8 @@ package org.homio.app.manager.common.impl;
 
 import static org.homio.api.util.HardwareUtils.MACHINE_IP_ADDRESS;
 
+import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.time.Duration;
@@ -19,13 +19,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.SystemUtils;
-import org.homio.api.ContextBGP;
 import org.homio.api.ContextNetwork;
 import org.homio.api.model.Icon;
 import org.homio.api.util.CommonUtils;
 import org.homio.api.util.Lang;
 import org.homio.api.workspace.Lock;
 import org.homio.app.manager.common.ContextImpl;
+import org.homio.app.manager.common.impl.UdpSelectorLoop.UdpPort;
 import org.homio.hquery.Curl;
 import org.homio.hquery.hardware.network.NetworkHardwareRepository;
 import org.homio.hquery.hardware.network.NetworkHardwareRepository.CidrAddress;
@@ -44,7 +44,8 @@ public class ContextNetworkImpl implements ContextNetwork {
   private final MDNSClient mdnsClient = new MDNSClient();
   private final Map<String, BiConsumer<List<CidrAddress>, List<CidrAddress>>>
       networkAddressChangeListeners = new HashMap<>();
-  private final Map<String, UdpContext> listenUdpMap = new HashMap<>();
+  private final Map<String, UdpPort> listenUdpMap = new ConcurrentHashMap<>();
+  private UdpSelectorLoop udpSelectorLoop;
 
   @Getter private final Map<String, HttpRequests> scratchHttpRequests = new ConcurrentHashMap<>();
 
@@ -169,34 +170,20 @@ public class ContextNetworkImpl implements ContextNetwork {
 
   @Override
   @SneakyThrows
-  public void listenUdp(
+  public synchronized void listenUdp(
       @NotNull String key,
       String host,
       int port,
       @NotNull BiConsumer<DatagramPacket, String> listener) {
     String hostPortKey = (host == null ? "0.0.0.0" : host) + ":" + port;
-    if (!this.listenUdpMap.containsKey(hostPortKey)) {
-      ContextBGP.ThreadContext<Void> scheduleFuture;
+    UdpPort udpPort = this.listenUdpMap.get(hostPortKey);
+    if (udpPort == null) {
       try {
-        DatagramSocket socket =
-            new DatagramSocket(
-                host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
-        DatagramPacket datagramPacket = new DatagramPacket(new byte[255], 255);
-
-        scheduleFuture =
-            context
-                .bgp()
-                .builder("listen-udp-" + hostPortKey)
-                .execute(
-                    () -> {
-                      while (!Thread.currentThread().isInterrupted()) {
-                        socket.receive(datagramPacket);
-                        byte[] data = datagramPacket.getData();
-                        String text = new String(data, 0, datagramPacket.getLength());
-                        listenUdpMap.get(hostPortKey).handle(datagramPacket, text);
-                      }
-                    });
-        scheduleFuture.setDescription("Listen udp: " + hostPortKey);
+        udpPort =
+            getUdpSelectorLoop()
+                .open(
+                    hostPortKey,
+                    host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
       } catch (Exception ex) {
         context
             .ui()
@@ -214,16 +201,25 @@ public class ContextNetworkImpl implements ContextNetwork {
         log.error("Unable to listen udp host:port: <{}>", hostPortKey);
         return;
       }
-      this.listenUdpMap.put(hostPortKey, new UdpContext(scheduleFuture));
+      this.listenUdpMap.put(hostPortKey, udpPort);
     }
-    this.listenUdpMap.get(hostPortKey).put(key, listener);
+    udpPort.put(key, listener);
   }
 
   @Override
-  public void stopListenUdp(@NotNull String key) {
-    for (UdpContext udpContext : this.listenUdpMap.values()) {
-      udpContext.cancel(key);
+  public synchronized void stopListenUdp(@NotNull String key) {
+    this.listenUdpMap.values().removeIf(udpPort -> udpPort.cancel(key));
+  }
+
+  private UdpSelectorLoop getUdpSelectorLoop() throws IOException {
+    if (udpSelectorLoop == null) {
+      udpSelectorLoop =
+          new UdpSelectorLoop(
+              context.setting().getEnv("udp-max-datagram-size", 65507, true),
+              context.setting().getEnv("udp-buffer-pool-size", 32, true),
+              context.setting().getEnv("udp-listener-queue-size", 256, true));
     }
+    return udpSelectorLoop;
   }
 
   @Override
@@ -251,29 +247,5 @@ public class ContextNetworkImpl implements ContextNetwork {
     scratchHttpRequests.remove(path);
   }
 
-  @RequiredArgsConstructor
-  private static class UdpContext {
-
-    private final Map<String, BiConsumer<DatagramPacket, String>> keyToListener = new HashMap<>();
-    private final ContextBGP.ThreadContext<Void> scheduleFuture;
-
-    public void handle(DatagramPacket datagramPacket, String text) {
-      for (BiConsumer<DatagramPacket, String> listener : keyToListener.values()) {
-        listener.accept(datagramPacket, text);
-      }
-    }
-
-    public void put(String key, BiConsumer<DatagramPacket, String> listener) {
-      this.keyToListener.put(key, listener);
-    }
-
-    public void cancel(String key) {
-      keyToListener.remove(key);
-      if (keyToListener.isEmpty()) {
-        scheduleFuture.cancel();
-      }
-    }
-  }
-
   public record HttpRequests(Lock lock, AtomicReference<CompletableFuture<String>> answerLockRef) {}
 }
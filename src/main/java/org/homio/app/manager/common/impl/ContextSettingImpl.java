@@ -37,8 +37,10 @@ import org.homio.app.manager.common.ClassFinder;
 import org.homio.app.manager.common.ContextImpl;
 import org.homio.app.model.entity.SettingEntity;
 import org.homio.app.repository.SettingRepository;
+import org.homio.app.service.mem.InMemoryDB;
 import org.homio.app.setting.system.SystemLogRequestsSetting;
 import org.homio.app.setting.system.SystemPlaceSetting;
+import org.homio.app.setting.system.db.SystemNativeInMemoryStorageSetting;
 import org.homio.app.setting.system.proxy.SystemProxyAddressSetting;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -312,6 +314,7 @@ public class ContextSettingImpl implements ContextSetting {
         addSettingsFromSystem(settingClasses);
         configureProxy();
         listenValueAndGet(SystemLogRequestsSetting.class, "slr", value -> ContextSettingImpl.IS_ENABLE_REQUEST_LOGS = value);
+        listenValueAndGet(SystemNativeInMemoryStorageSetting.class, "nims", InMemoryDB::setNativeStorage);
     }
 
     public void addSettingsFromClassLoader(AddonContext addonContext) {
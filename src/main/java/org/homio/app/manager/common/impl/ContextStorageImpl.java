@@ -255,7 +255,7 @@ public class ContextStorageImpl implements ContextStorage {
     public BaseEntity delete(@NotNull String entityID) {
         AbstractRepository repository = ContextImpl.getRepository(entityID);
         BaseEntity deletedEntity = repository.deleteByEntityID(entityID);
-        cacheService.clearCache();
+        cacheService.entityRemoved(entityID, deletedEntity);
         if (deletedEntity != null) {
             context.getBean(LogService.class).deleteEntityLogsFile(deletedEntity);
             runUpdateNotifyListeners(null, deletedEntity, context.event().getEntityRemoveListeners());
@@ -269,7 +269,8 @@ public class ContextStorageImpl implements ContextStorage {
         if (baseEntity == null) {
             baseEntity = entityManager.getEntityNoCache(entityID);
             if (baseEntity != null) {
-                cacheService.clearCache();
+                // cache holds 'null' for entity that was created after lookup
+                cacheService.entityUpdated(baseEntity);
             }
         }
 
@@ -297,7 +298,7 @@ public class ContextStorageImpl implements ContextStorage {
         }
 
         saved = save(saved, true);
-        cacheService.clearCache();
+        cacheService.entityUpdated(saved);
         return saved;
     }
 
@@ -132,6 +132,7 @@ public class ContextUIImpl implements ContextUI {
   private final @NotNull Map<String, Object> refreshConsolePlugin = new ConcurrentHashMap<>();
   private final Map<String, UiUpdateListener> updateListenerRefreshHandler =
       new ConcurrentHashMap<>();
+  private final @NotNull UISessions uiSessions = new UISessions(this::sendRawData);
 
   public static ConsolePlugin<?> getPlugin(String tab) {
     ConsolePlugin<?> consolePlugin = consolePluginsMap.get(tab);
@@ -164,8 +165,16 @@ public class ContextUIImpl implements ContextUI {
             "drop-outdated-dynamicContext",
             () ->
                 this.dynamicUpdateRegisters
-                    .values()
-                    .removeIf(v -> MILLISECONDS.toMinutes(currentTimeMillis() - v.timeout) > 5));
+                    .entrySet()
+                    .removeIf(
+                        entry -> {
+                          if (MILLISECONDS.toMinutes(currentTimeMillis() - entry.getValue().timeout)
+                              > 5) {
+                            uiSessions.forget(entry.getKey(), null);
+                            return true;
+                          }
+                          return false;
+                        }));
   }
 
   private void threadSendUIUpdates() {
@@ -181,6 +190,7 @@ public class ContextUIImpl implements ContextUI {
               updateConsole();
               ContextUIImpl.consolePluginsMap.forEach(this::updateConsoleUI);
               ContextUIImpl.consoleRemovablePluginsMap.forEach(this::updateConsoleUI);
+              uiSessions.updateRates();
             });
   }
 
@@ -198,13 +208,16 @@ public class ContextUIImpl implements ContextUI {
   }
 
   private void updateUI() {
-    for (Iterator<SendUpdateContext> iterator = sendToUIMap.values().iterator();
+    for (Iterator<Entry<String, SendUpdateContext>> iterator = sendToUIMap.entrySet().iterator();
         iterator.hasNext(); ) {
-      SendUpdateContext context = iterator.next();
+      Entry<String, SendUpdateContext> entry = iterator.next();
+      SendUpdateContext context = entry.getValue();
 
       try {
         sendDynamicUpdateSupplied(
-            new DynamicUpdateRequest(context.dynamicUpdateID(), null), context.handler::get);
+            new DynamicUpdateRequest(context.dynamicUpdateID(), null),
+            entry.getKey(),
+            context.handler::get);
       } catch (Exception ex) {
         log.warn(
             "Unable to send dynamic update for: {}. {}",
@@ -272,6 +285,15 @@ public class ContextUIImpl implements ContextUI {
   }
 
   public void registerForUpdates(DynamicUpdateRequest request) {
+    registerForUpdates(request, null, false);
+  }
+
+  /**
+   * @param sid        - ui session id. Updates go only to this session and as diffs. Without session id updates are
+   *                   broadcast
+   * @param chartDelta - client understands incremental chart updates, see isChartDeltaUpdate(...)
+   */
+  public void registerForUpdates(DynamicUpdateRequest request, @Nullable String sid, boolean chartDelta) {
     DynamicUpdateContext duc = dynamicUpdateRegisters.get(request);
     String dud = request.getDynamicUpdateId();
     if (duc == null) {
@@ -286,11 +308,22 @@ public class ContextUIImpl implements ContextUI {
               widgetEntity.getJsonData());
         }
       }
-      dynamicUpdateRegisters.put(request, new DynamicUpdateContext());
+      duc = new DynamicUpdateContext();
+      dynamicUpdateRegisters.put(request, duc);
     } else {
       duc.timeout = currentTimeMillis(); // refresh timer
       duc.registerCounter.incrementAndGet();
     }
+    if (UISessions.isValidSessionId(sid)) {
+      duc.sessions.add(sid);
+      // widget (re)mounted on page, so it needs full value
+      uiSessions.forget(request, sid);
+    } else {
+      duc.broadcast = true;
+    }
+    if (!chartDelta) {
+      duc.fullChartOnly = true;
+    }
     UiUpdateListener uiUpdateListener =
         updateListenerRefreshHandler.get(request.getEntityID() + "~~~" + dud);
     if (uiUpdateListener != null) {
@@ -309,16 +342,59 @@ public class ContextUIImpl implements ContextUI {
   public void unRegisterForUpdates(String entityID) {
     dynamicUpdateRegisters
         .keySet()
-        .removeIf(request -> request.getDynamicUpdateId().startsWith(entityID));
+        .removeIf(
+            request -> {
+              if (request.getDynamicUpdateId().startsWith(entityID)) {
+                uiSessions.forget(request, null);
+                return true;
+              }
+              return false;
+            });
   }
 
   public void unRegisterForUpdates(DynamicUpdateRequest request) {
+    unRegisterForUpdates(request, null);
+  }
+
+  public void unRegisterForUpdates(DynamicUpdateRequest request, @Nullable String sid) {
     DynamicUpdateContext context = dynamicUpdateRegisters.get(request);
-    if (context != null && context.registerCounter.decrementAndGet() == 0) {
-      dynamicUpdateRegisters.remove(request);
+    if (context != null) {
+      if (sid != null) {
+        context.sessions.remove(sid);
+        uiSessions.forget(request, sid);
+      }
+      if (context.registerCounter.decrementAndGet() == 0) {
+        dynamicUpdateRegisters.remove(request);
+      }
     }
   }
 
+  /**
+   * Stomp client subscribed to destination. Subscription to session destination starts (or restarts) ui session
+   */
+  public void onSessionSubscribe(@NotNull String stompSessionId, @Nullable String destination) {
+    uiSessions.subscribed(stompSessionId, destination);
+  }
+
+  public void onSessionDisconnect(@NotNull String stompSessionId) {
+    String sid = uiSessions.disconnected(stompSessionId);
+    if (sid != null) {
+      for (DynamicUpdateContext context : dynamicUpdateRegisters.values()) {
+        context.sessions.remove(sid);
+      }
+    }
+  }
+
+  /**
+   * @return true if every client registered for update declared that it understands chart deltas. Session id alone
+   * only means client applies merge patches, such client still may expect full chart on every update
+   */
+  public boolean isChartDeltaUpdate(@NotNull String dynamicUpdateId, @Nullable String entityId) {
+    DynamicUpdateContext context =
+        dynamicUpdateRegisters.get(new DynamicUpdateRequest(dynamicUpdateId, entityId));
+    return context != null && !context.fullChartOnly && (context.broadcast || !context.sessions.isEmpty());
+  }
+
   public void sendDynamicUpdateImpl(
       @NotNull String dynamicUpdateId, @Nullable String entityId, @Nullable Object value) {
     if (value != null) {
@@ -328,12 +404,26 @@ public class ContextUIImpl implements ContextUI {
 
   public void sendDynamicUpdateSupplied(
       @NotNull DynamicUpdateRequest request, @NotNull Supplier<Object> supplier) {
+    sendDynamicUpdateSupplied(
+        request, request.getDynamicUpdateId() + "~~~" + request.getEntityID(), supplier);
+  }
+
+  /**
+   * @param key - identity of value within request. Session receives diff against last value sent with same key
+   */
+  public void sendDynamicUpdateSupplied(
+      @NotNull DynamicUpdateRequest request,
+      @NotNull String key,
+      @NotNull Supplier<Object> supplier) {
     DynamicUpdateContext context = dynamicUpdateRegisters.get(request);
-    if (context != null) {
+    if (context != null && (context.broadcast || !context.sessions.isEmpty())) {
       Object value = supplier.get();
       if (value != null) {
         if (currentTimeMillis() - context.timeout > 60000) {
           dynamicUpdateRegisters.remove(request);
+          uiSessions.forget(request, null);
+        } else if (!context.broadcast) {
+          uiSessions.send(context.sessions, request, key, value);
         } else {
           sendGlobal(
               GlobalSendType.dynamicUpdate,
@@ -874,6 +964,12 @@ public class ContextUIImpl implements ContextUI {
 
     private final AtomicInteger registerCounter = new AtomicInteger(0);
     private long timeout = currentTimeMillis();
+    // ui sessions which receive update on own destination
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    // registered by client without session id, so update has to be broadcast to '-global'
+    private volatile boolean broadcast;
+    // registered by client which doesn't understand chart deltas, so charts have to be sent fully
+    private volatile boolean fullChartOnly;
   }
 
   private record NotificationBlockBuilderImpl(
@@ -446,38 +446,47 @@ public class ContextVarImpl implements ContextVar {
     }
 
     private void clearBackupsEveryHour() {
+        Map<Integer, List<WorkspaceVariable>> variablesByDays = new HashMap<>();
         for (VariableContext context : globalVarStorageMap.values()) {
             if (context.variable.isBackup()) {
-                variableBackupRepository.deleteButKeepDays(context.variable, context.variable.getBackupDays());
+                variablesByDays.computeIfAbsent(context.variable.getBackupDays(), days -> new ArrayList<>())
+                        .add(context.variable);
             }
         }
+        variablesByDays.forEach((days, variables) -> variableBackupRepository.deleteButKeepDays(variables, days));
     }
 
     private void backupVariablesEveryMinute() {
+        Map<WorkspaceVariable, List<WorkspaceVariableMessage>> backups = new LinkedHashMap<>();
+        // per variable time of query, values written while other variables are queried are not skipped on next run
+        Map<VariableContext, Long> backupTimestamps = new LinkedHashMap<>();
         for (VariableContext context : globalVarStorageMap.values()) {
             if (context.variable.isBackup()) {
                 long nextTime = System.currentTimeMillis();
                 List<WorkspaceVariableMessage> values = context.storageService.findAllSince(context.lastBackupTimestamp);
                 if (!values.isEmpty()) {
-                    backupVariables(context, values);
+                    backups.put(context.variable, getBackupValues(context, values));
                 }
-                context.lastBackupTimestamp = nextTime;
+                backupTimestamps.put(context, nextTime);
             }
         }
+        if (!backups.isEmpty()) {
+            int batchSize = context.setting().getEnv("variable-backup-batch-size",
+                    VariableBackupRepository.DEFAULT_BATCH_SIZE, true);
+            variableBackupRepository.saveAll(backups, batchSize);
+        }
+        // move timestamps only after successful save, otherwise values are saved on next try
+        backupTimestamps.forEach((context, nextTime) -> context.lastBackupTimestamp = nextTime);
     }
 
-    private void backupVariables(VariableContext context, List<WorkspaceVariableMessage> values) {
+    private List<WorkspaceVariableMessage> getBackupValues(VariableContext context, List<WorkspaceVariableMessage> values) {
         if (context.variable.isBackupAggregateValues()) {
-            WorkspaceVariableMessage variableMessage;
             if (context.variable.getValueType() == HasGetStatusValue.ValueType.Float) {
-                variableMessage = WorkspaceVariableMessage.average(values);
-            } else {
-                variableMessage = values.getLast();
+                return List.of(WorkspaceVariableMessage.average(values));
             }
-            variableBackupRepository.save(context.variable, variableMessage);
-        } else {
-            variableBackupRepository.save(context.variable, values);
+            return List.of(values.getLast());
         }
+        return values;
     }
 
     private Object convertBigDecimal(BigDecimal value) {
@@ -946,6 +955,8 @@ public class ContextVarImpl implements ContextVar {
         private final VariableContext varContext;
         boolean error = false;
         private DynamicVariableSet variables;
+        // evaluator keeps tokens/literals of expression. Rebuilt only if expression or sources are changed
+        private volatile CompiledExpression compiled;
 
         public TransformVariableContext(VariableContext varContext) {
             this.varContext = varContext;
@@ -958,19 +969,30 @@ public class ContextVarImpl implements ContextVar {
             }
         }
 
-        private void recalculate() {
+        // sources are dispatched in different event lanes, so recalculations of same variable may run concurrently.
+        // Evaluate and set under lock, otherwise run which read stale sources may set value after newer run
+        private synchronized void recalculate() {
             if (error) {
                 return;
             }
             try {
-                Double result = (Double) new ExtendedDoubleEvaluator(ContextVarImpl.this)
-                        .evaluate(varContext.variable.getCode(), variables);
+                Double result = (Double) getCompiledExpression().evaluate();
                 set(varContext, result, false);
             } catch (Exception ex) {
                 log.warn("Unable to evaluate variable expression: '{}'. Msg: {}", varContext.variable.getCode(), CommonUtils.getErrorMessage(ex));
             }
         }
 
+        CompiledExpression getCompiledExpression() {
+            String code = varContext.variable.getCode();
+            CompiledExpression compiled = this.compiled;
+            if (compiled == null || compiled.variables != variables || !Objects.equals(compiled.code, code)) {
+                compiled = new CompiledExpression(code, variables, new ExtendedDoubleEvaluator(ContextVarImpl.this));
+                this.compiled = compiled;
+            }
+            return compiled;
+        }
+
         private void registerSources() {
             List<TransformVariableSourceImpl> sources = List.of();
             try {
@@ -990,6 +1012,13 @@ public class ContextVarImpl implements ContextVar {
             this.variables = new DynamicVariableSet(sources);
         }
 
+        record CompiledExpression(String code, DynamicVariableSet variables, ExtendedDoubleEvaluator evaluator) {
+
+            Object evaluate() {
+                return evaluator.evaluate(code, variables);
+            }
+        }
+
         public static class ExtendedDoubleEvaluator extends ObjectEvaluator {
 
             private static final Map<String, BiFunction<Iterator<Object>, ContextVarImpl, Double>> functions = new HashMap<>();
@@ -0,0 +1,276 @@
+package org.homio.app.manager.common.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.homio.api.util.JsonUtils.OBJECT_MAPPER;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import lombok.extern.log4j.Log4j2;
+import org.homio.api.util.CommonUtils;
+import org.homio.app.config.WebSocketConfig;
+import org.homio.app.manager.common.impl.ContextUIImpl.GlobalSendType;
+import org.homio.app.model.rest.DynamicUpdateRequest;
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * UI sessions (browser tabs) which receive dynamic updates on own destination instead of '-global' broadcast. Client
+ * generates session id, subscribes to '-session/{sid}' and passes sid when registers for dynamic updates. Session
+ * keeps last payload sent per update key: first payload goes as 'value', next ones as 'patch' - JSON merge patch
+ * (RFC 7386) against previous value of same key, unchanged payloads are not sent. Client applies patch to own last
+ * value of key. Re-subscribe (reconnect) resets session so next payloads are full. Session id comes from client, so
+ * metrics are aggregated over all sessions instead of per session id
+ */
+@Log4j2
+final class UISessions {
+
+  public static final String SESSION_DESTINATION = "-session/";
+  private static final Pattern SESSION_ID = Pattern.compile("[\\w-]{1,64}");
+
+  // destination (without prefix), payload
+  private final BiConsumer<String, String> sender;
+  // stomp session id -> ui session id
+  private final Map<String, String> stompSessions = new ConcurrentHashMap<>();
+  private final Map<String, UISession> sessions = new ConcurrentHashMap<>();
+  private final LongAdder skippedFrames = AppMetrics.counter("ws.session.frames.skipped");
+  private final LongAdder patchFrames = AppMetrics.counter("ws.session.frames.patch");
+  private final LongAdder fullFrames = AppMetrics.counter("ws.session.frames.full");
+  private final LongAdder sentBytes = AppMetrics.counter("ws.session.bytes");
+
+  UISessions(BiConsumer<String, String> sender) {
+    this.sender = sender;
+    AppMetrics.gauge("ws.session.count", sessions::size);
+    AppMetrics.gauge("ws.session.bytes-per-sec",
+        () -> sessions.values().stream().mapToLong(session -> session.bytesPerSecond).sum());
+    AppMetrics.gauge("ws.session.bytes-per-sec.max",
+        () -> sessions.values().stream().mapToLong(session -> session.bytesPerSecond).max().orElse(0));
+  }
+
+  public static boolean isValidSessionId(@Nullable String sid) {
+    return sid != null && SESSION_ID.matcher(sid).matches();
+  }
+
+  /**
+   * @return ui session id if destination is session destination
+   */
+  public @Nullable String subscribed(@NotNull String stompSessionId, @Nullable String destination) {
+    String prefix = WebSocketConfig.DESTINATION_PREFIX + SESSION_DESTINATION;
+    if (destination == null || !destination.startsWith(prefix)) {
+      return null;
+    }
+    String sid = destination.substring(prefix.length());
+    if (!isValidSessionId(sid)) {
+      return null;
+    }
+    String previousSid = stompSessions.put(stompSessionId, sid);
+    sessions.computeIfAbsent(sid, UISession::new).reset();
+    // stomp session switched to another ui session id, previous one is not reachable anymore
+    if (previousSid != null && !previousSid.equals(sid)) {
+      closeIfUnused(previousSid);
+    }
+    return sid;
+  }
+
+  /**
+   * @return ui session id if it has no more stomp sessions and is closed
+   */
+  public @Nullable String disconnected(@NotNull String stompSessionId) {
+    String sid = stompSessions.remove(stompSessionId);
+    return sid != null && closeIfUnused(sid) ? sid : null;
+  }
+
+  /**
+   * Drop last sent values of request, so next payload of request goes full
+   */
+  public void forget(@NotNull DynamicUpdateRequest request, @Nullable String sid) {
+    if (sid == null) {
+      sessions.values().forEach(session -> session.forget(request));
+    } else {
+      UISession session = sessions.get(sid);
+      if (session != null) {
+        session.forget(request);
+      }
+    }
+  }
+
+  public void send(
+      @NotNull Collection<String> sids,
+      @NotNull DynamicUpdateRequest request,
+      @NotNull String key,
+      @NotNull Object value) {
+    JsonNode node;
+    try {
+      // serialize to plain tree: entities inside POJO nodes are mutable and can't be compared with previous value
+      node = OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsBytes(value));
+    } catch (Exception ex) {
+      log.error("Unable to serialize dynamic update: {}. {}", request, CommonUtils.getErrorMessage(ex));
+      return;
+    }
+    for (String sid : sids) {
+      UISession session = sessions.get(sid);
+      if (session != null) {
+        session.send(request, key, node);
+      }
+    }
+  }
+
+  /**
+   * Calculate bytes/s of every session. Expected to be called every second
+   */
+  public void updateRates() {
+    sessions.values().forEach(UISession::updateRate);
+  }
+
+  /**
+   * @return JSON merge patch which turns source into target, null if they are equal or MissingNode if target can't be
+   * expressed by merge patch: null member of patch means 'remove member', so member can't be set to explicit null
+   */
+  static @Nullable JsonNode createMergePatch(@NotNull JsonNode source, @NotNull JsonNode target) {
+    if (source.equals(target)) {
+      return null;
+    }
+    if (!source.isObject() || !target.isObject()) {
+      // object patch is merged into empty object on client, so null members would be dropped
+      return hasNullMember(target) ? MissingNode.getInstance() : target;
+    }
+    ObjectNode patch = OBJECT_MAPPER.createObjectNode();
+    for (Iterator<String> iterator = source.fieldNames(); iterator.hasNext(); ) {
+      String field = iterator.next();
+      if (!target.has(field)) {
+        patch.putNull(field);
+      }
+    }
+    for (Iterator<Entry<String, JsonNode>> iterator = target.fields(); iterator.hasNext(); ) {
+      Entry<String, JsonNode> entry = iterator.next();
+      JsonNode sourceValue = source.get(entry.getKey());
+      if (entry.getValue().isNull()) {
+        if (sourceValue != null && sourceValue.isNull()) {
+          continue;
+        }
+        return MissingNode.getInstance();
+      }
+      JsonNode fieldPatch =
+          createMergePatch(sourceValue == null ? MissingNode.getInstance() : sourceValue, entry.getValue());
+      if (fieldPatch != null) {
+        if (fieldPatch.isMissingNode()) {
+          return fieldPatch;
+        }
+        patch.set(entry.getKey(), fieldPatch);
+      }
+    }
+    return patch;
+  }
+
+  /**
+   * Arrays are replaced as is by merge patch, so only members of nested objects are checked
+   */
+  private static boolean hasNullMember(JsonNode node) {
+    if (node.isObject()) {
+      for (Iterator<JsonNode> iterator = node.elements(); iterator.hasNext(); ) {
+        JsonNode value = iterator.next();
+        if (value.isNull() || hasNullMember(value)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if ui session has no more stomp sessions and is closed
+   */
+  private boolean closeIfUnused(String sid) {
+    if (stompSessions.containsValue(sid)) {
+      return false;
+    }
+    UISession session = sessions.remove(sid);
+    if (session != null) {
+      session.close();
+    }
+    return true;
+  }
+
+  private final class UISession {
+
+    private final String sid;
+    // request -> key -> last sent value
+    private final Map<DynamicUpdateRequest, Map<String, JsonNode>> lastSent =
+        new ConcurrentHashMap<>();
+    private final LongAdder bytes = new LongAdder();
+    private volatile long bytesPerSecond;
+    private long lastBytes;
+    private long lastRateTime = System.nanoTime();
+
+    private UISession(String sid) {
+      this.sid = sid;
+    }
+
+    private synchronized void reset() {
+      lastSent.clear();
+    }
+
+    private synchronized void forget(DynamicUpdateRequest request) {
+      lastSent.remove(request);
+    }
+
+    private synchronized void close() {
+      lastSent.clear();
+    }
+
+    // synchronized: patch is calculated against last sent value, so concurrent senders (ui updates drain and event
+    // threads) must not reorder patches of same key
+    private synchronized void send(DynamicUpdateRequest request, String key, JsonNode value) {
+      JsonNode previous =
+          lastSent.computeIfAbsent(request, r -> new ConcurrentHashMap<>()).put(key, value);
+      ObjectNode frame =
+          OBJECT_MAPPER
+              .createObjectNode()
+              .put("type", GlobalSendType.dynamicUpdate.name())
+              .put("key", key)
+              .putPOJO("dynamicRequest", request);
+      JsonNode patch = previous == null ? MissingNode.getInstance() : createMergePatch(previous, value);
+      if (patch == null) {
+        skippedFrames.increment();
+        return;
+      }
+      if (patch.isMissingNode()) {
+        frame.set("value", value);
+        fullFrames.increment();
+      } else {
+        frame.set("patch", patch);
+        patchFrames.increment();
+      }
+      try {
+        String payload = OBJECT_MAPPER.writeValueAsString(frame);
+        sender.accept(SESSION_DESTINATION + sid, payload);
+        int size = payload.getBytes(UTF_8).length;
+        bytes.add(size);
+        sentBytes.add(size);
+      } catch (Exception ex) {
+        // client didn't get value, next payload has to be full
+        lastSent.getOrDefault(request, Map.of()).remove(key);
+        log.error("Unable to send dynamic update to session {}: {}", sid, CommonUtils.getErrorMessage(ex));
+      }
+    }
+
+    private synchronized void updateRate() {
+      long now = System.nanoTime();
+      long total = bytes.sum();
+      if (now > lastRateTime) {
+        bytesPerSecond = (total - lastBytes) * 1_000_000_000L / (now - lastRateTime);
+      }
+      lastBytes = total;
+      lastRateTime = now;
+    }
+  }
+}
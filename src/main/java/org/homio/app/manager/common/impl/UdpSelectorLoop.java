@@ -0,0 +1,270 @@
+package org.homio.app.manager.common.impl;
+
+import lombok.extern.log4j.Log4j2;
+import org.homio.api.util.CommonUtils;
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Single selector thread receives datagrams of all listened udp ports into pooled direct buffers. Packets are handed to
+ * listeners of port in order on virtual threads. If buffer pool or port's queue is full (listeners are slower than
+ * incoming traffic) packet is dropped and counted
+ */
+@Log4j2
+final class UdpSelectorLoop {
+
+  private static final int MAX_RECEIVES_PER_SELECT = 64;
+  private static final long CLOSE_TIMEOUT_MS = 1000;
+
+  private final int maxDatagramSize;
+  private final int queueSize;
+  private final BlockingQueue<ByteBuffer> bufferPool;
+  private final AtomicInteger allocatedBuffers = new AtomicInteger();
+  private final int maxBuffers;
+  private final Queue<Runnable> pendingOperations = new ConcurrentLinkedQueue<>();
+  private final ExecutorService handlerExecutor =
+    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("udp-handler-", 0).factory());
+  private final Selector selector;
+  private final Thread selectorThread;
+  // used by selector thread to drain socket when packet has to be dropped
+  private final ByteBuffer dropBuffer;
+
+  UdpSelectorLoop(int maxDatagramSize, int bufferPoolSize, int queueSize) throws IOException {
+    this.maxDatagramSize = maxDatagramSize;
+    this.queueSize = Math.max(1, queueSize);
+    this.maxBuffers = Math.max(1, bufferPoolSize);
+    this.bufferPool = new ArrayBlockingQueue<>(maxBuffers);
+    this.dropBuffer = ByteBuffer.allocateDirect(maxDatagramSize);
+    this.selector = Selector.open();
+    AppMetrics.gauge("udp.buffers.allocated", allocatedBuffers::get);
+    AppMetrics.gauge("udp.buffers.idle", bufferPool::size);
+
+    this.selectorThread = new Thread(this::run, "udp-selector");
+    selectorThread.setDaemon(true);
+    selectorThread.start();
+  }
+
+  /**
+   * Bind channel in caller thread, so bind error goes to caller, and register it in selector
+   */
+  public @NotNull UdpPort open(@NotNull String hostPortKey, @NotNull InetSocketAddress address) throws IOException {
+    DatagramChannel channel = DatagramChannel.open();
+    try {
+      channel.bind(address);
+      channel.configureBlocking(false);
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+    UdpPort port = new UdpPort(hostPortKey, channel);
+    runInLoop(() -> {
+      try {
+        channel.register(selector, SelectionKey.OP_READ, port);
+      } catch (ClosedChannelException ignore) {
+        // closed before registration
+      }
+    });
+    return port;
+  }
+
+  private void runInLoop(Runnable operation) {
+    pendingOperations.add(operation);
+    selector.wakeup();
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        selector.select();
+        Runnable operation;
+        while ((operation = pendingOperations.poll()) != null) {
+          operation.run();
+        }
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          SelectionKey key = iterator.next();
+          iterator.remove();
+          if (key.isValid() && key.isReadable()) {
+            ((UdpPort) key.attachment()).receive();
+          }
+        }
+      } catch (Exception ex) {
+        log.error("Error in udp selector loop: {}", CommonUtils.getErrorMessage(ex));
+      }
+    }
+  }
+
+  private ByteBuffer acquireBuffer() {
+    ByteBuffer buffer = bufferPool.poll();
+    if (buffer == null) {
+      // buffers are allocated lazily up to pool size
+      if (allocatedBuffers.incrementAndGet() <= maxBuffers) {
+        return ByteBuffer.allocateDirect(maxDatagramSize);
+      }
+      allocatedBuffers.decrementAndGet();
+    }
+    return buffer;
+  }
+
+  private void releaseBuffer(ByteBuffer buffer) {
+    buffer.clear();
+    bufferPool.offer(buffer);
+  }
+
+  private record Packet(ByteBuffer buffer, SocketAddress sender) {
+  }
+
+  final class UdpPort {
+
+    private final String hostPortKey;
+    private final DatagramChannel channel;
+    private final Map<String, BiConsumer<DatagramPacket, String>> keyToListener = new ConcurrentHashMap<>();
+    private final BlockingQueue<Packet> queue = new ArrayBlockingQueue<>(queueSize);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private UdpPort(String hostPortKey, DatagramChannel channel) {
+      this.hostPortKey = hostPortKey;
+      this.channel = channel;
+      // gauges instead of counters, so metrics of closed port are removed
+      AppMetrics.gauge("udp." + hostPortKey + ".packets", packets::sum);
+      AppMetrics.gauge("udp." + hostPortKey + ".bytes", bytes::sum);
+      AppMetrics.gauge("udp." + hostPortKey + ".dropped", dropped::sum);
+    }
+
+    public void put(String key, BiConsumer<DatagramPacket, String> listener) {
+      keyToListener.put(key, listener);
+    }
+
+    /**
+     * @return true if it was last listener and port is closed
+     */
+    public boolean cancel(String key) {
+      keyToListener.remove(key);
+      if (keyToListener.isEmpty()) {
+        close();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Close channel in caller thread, so same port may be bound right after. Registered channel releases socket only
+     * when selector deregisters cancelled key, so wait for one selector pass
+     */
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException ex) {
+        log.warn("Unable to close udp channel: {}", hostPortKey);
+      }
+      AppMetrics.removeGauge("udp." + hostPortKey + ".packets");
+      AppMetrics.removeGauge("udp." + hostPortKey + ".bytes");
+      AppMetrics.removeGauge("udp." + hostPortKey + ".dropped");
+      if (Thread.currentThread() != selectorThread) {
+        CountDownLatch deregistered = new CountDownLatch(1);
+        runInLoop(deregistered::countDown);
+        try {
+          if (!deregistered.await(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            log.warn("Udp channel {} isn't released in {}ms", hostPortKey, CLOSE_TIMEOUT_MS);
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    // selector thread. Key stays selected if more datagrams left, so one busy port doesn't starve others
+    private void receive() throws IOException {
+      for (int i = 0; i < MAX_RECEIVES_PER_SELECT; i++) {
+        ByteBuffer buffer = acquireBuffer();
+        if (buffer == null) {
+          dropBuffer.clear();
+          if (channel.receive(dropBuffer) == null) {
+            return;
+          }
+          countPacket(dropBuffer.position());
+          dropped.increment();
+          continue;
+        }
+        SocketAddress sender = channel.receive(buffer);
+        if (sender == null) {
+          releaseBuffer(buffer);
+          return;
+        }
+        buffer.flip();
+        countPacket(buffer.remaining());
+        if (!queue.offer(new Packet(buffer, sender))) {
+          releaseBuffer(buffer);
+          dropped.increment();
+          continue;
+        }
+        if (draining.compareAndSet(false, true)) {
+          handlerExecutor.execute(this::drain);
+        }
+      }
+    }
+
+    private void countPacket(int size) {
+      packets.increment();
+      bytes.add(size);
+    }
+
+    private void drain() {
+      try {
+        Packet packet;
+        while ((packet = queue.poll()) != null) {
+          dispatch(packet);
+        }
+      } finally {
+        draining.set(false);
+        // packet may be added after last poll but before flag reset
+        if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+          handlerExecutor.execute(this::drain);
+        }
+      }
+    }
+
+    private void dispatch(Packet packet) {
+      byte[] data = new byte[packet.buffer.remaining()];
+      packet.buffer.get(data);
+      releaseBuffer(packet.buffer);
+      DatagramPacket datagramPacket = new DatagramPacket(data, data.length, packet.sender);
+      String text = new String(data);
+      for (BiConsumer<DatagramPacket, String> listener : keyToListener.values()) {
+        try {
+          listener.accept(datagramPacket, text);
+        } catch (Exception ex) {
+          log.warn("Udp listener of {} failed: {}", hostPortKey, CommonUtils.getErrorMessage(ex));
+        }
+      }
+    }
+  }
+}
@@ -9,33 +9,47 @@ import org.jetbrains.annotations.NotNull;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 public class DynamicVariableSet implements AbstractVariableSet<Object> {
 
   private final @Getter
   @NotNull List<TransformVariableSourceImpl> sources;
+  // variable name -> bound slot, so names are parsed only once
+  private final Map<String, Supplier<Object>> slots = new ConcurrentHashMap<>();
 
   @Override
   public Object get(String variableName) {
+    return slots.computeIfAbsent(variableName, this::bind).get();
+  }
+
+  private Supplier<Object> bind(String variableName) {
     if (variableName.startsWith("VAR")) {
       int index = Integer.parseInt(variableName.substring("VAR".length()));
       assertVarExists(index);
-      Number number = sources.get(index).getHandler().getValue();
-      return number == null ? 0D : number.doubleValue();
+      TransformVariableSourceImpl source = sources.get(index);
+      return () -> {
+        Number number = source.getHandler().getValue();
+        return number == null ? 0D : number.doubleValue();
+      };
     } else if (variableName.startsWith("'VAR")) {
       int index = Integer.parseInt(variableName.substring("'VAR".length(), variableName.length() - 1));
       assertVarExists(index);
-      return sources.get(index).getListenSource();
+      String listenSource = sources.get(index).getListenSource();
+      return () -> listenSource;
     }
     // string case
         /* if (variableName.charAt(0) == '\'') {
             return variableName.substring(1, variableName.length() - 2);
         } */
     if (variableName.startsWith("PT")) {
-      return (double) Duration.parse(variableName).getSeconds();
+      double seconds = Duration.parse(variableName).getSeconds();
+      return () -> seconds;
     }
-    return null;
+    return () -> null;
   }
 
   private void assertVarExists(int index) {
@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,8 +52,12 @@ public class ObjectEvaluator extends AbstractEvaluator<Object> {
 
   private static final Pattern SCIENTIFIC_NOTATION_PATTERN = Pattern.compile("([+-]?(?:\\d+(?:\\.\\d*)?|\\.\\d+)[eE][+-]?\\d+)$");
   private static final ThreadLocal<NumberFormat> FORMATTER = ThreadLocal.withInitial(() -> NumberFormat.getNumberInstance(Locale.US));
+  private static final int MAX_CACHED_LITERALS = 256;
 
   private boolean supportsScientificNotation;
+  // tokens of last evaluated expression. Evaluator that is reused for same expression tokenizes it only once
+  private volatile CachedTokens cachedTokens;
+  private final Map<String, Double> literals = new ConcurrentHashMap<>();
 
   /**
    * Constructor.
@@ -72,6 +78,17 @@ public class ObjectEvaluator extends AbstractEvaluator<Object> {
 
   @Override
   protected Iterator<String> tokenize(String expression) {
+    CachedTokens cached = this.cachedTokens;
+    if (cached == null || !cached.expression.equals(expression)) {
+      List<String> tokens = new ArrayList<>();
+      tokenizeInternal(expression).forEachRemaining(tokens::add);
+      cached = new CachedTokens(expression, List.copyOf(tokens));
+      this.cachedTokens = cached;
+    }
+    return cached.tokens.iterator();
+  }
+
+  private Iterator<String> tokenizeInternal(String expression) {
     if (supportsScientificNotation) {
       // There's a trap with scientific number notation (1E+50 for example):
       // + is considered as an operator. We'll make a basic work around...
@@ -103,6 +120,17 @@ public class ObjectEvaluator extends AbstractEvaluator<Object> {
 
   @Override
   protected Double toValue(String literal, Object evaluationContext) {
+    Double value = literals.get(literal);
+    if (value == null) {
+      value = parseValue(literal);
+      if (literals.size() < MAX_CACHED_LITERALS) {
+        literals.put(literal, value);
+      }
+    }
+    return value;
+  }
+
+  private Double parseValue(String literal) {
     ParsePosition p = new ParsePosition(0);
     Number result = FORMATTER.get().parse(literal, p);
     if (p.getIndex() == 0 || p.getIndex() != literal.length()) {
@@ -230,6 +258,9 @@ public class ObjectEvaluator extends AbstractEvaluator<Object> {
     return result;
   }
 
+  private record CachedTokens(String expression, List<String> tokens) {
+  }
+
   private void errIfNaN(Double result, Function function) {
     if (result.equals(Double.NaN)) {
       throw new IllegalArgumentException("Invalid argument passed to " + function.getName());
@@ -14,8 +14,14 @@ public class CompileScriptContext {
   private final CompiledScript compiledScript;
   private final String formattedJavaScript;
   private final JsonNode jsonParams;
+  // polyglot context was force closed because script got stuck. Context can't be used anymore and has to be recreated
+  private volatile boolean closed;
 
   public ScriptEngine getEngine() {
     return compiledScript.getEngine();
   }
+
+  public void markClosed() {
+    closed = true;
+  }
 }
@@ -1,25 +1,40 @@
 package org.homio.app.repository;
 
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
 import org.homio.app.config.TransactionManagerContext;
 import org.homio.app.model.var.VariableBackup;
 import org.homio.app.model.var.WorkspaceVariable;
 import org.homio.app.model.var.WorkspaceVariableMessage;
+import org.homio.app.utils.AppMetrics;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Log4j2
 @Repository
 public class VariableBackupRepository {
 
+  public static final int DEFAULT_BATCH_SIZE = 500;
+  private static final int MAX_DELETE_PARAMETERS = 500;
+
   private final TransactionManagerContext tmc;
   private final AtomicInteger nextId;
+  private final AppMetrics.Timer saveTimer = AppMetrics.timer("variable.backup.save");
+  private final AppMetrics.Timer deleteTimer = AppMetrics.timer("variable.backup.delete");
+  private final LongAdder savedRows = AppMetrics.counter("variable.backup.rows");
+  private volatile long lastRowsPerSecond;
 
   public VariableBackupRepository(TransactionManagerContext tmc) {
     this.tmc = tmc;
+    AppMetrics.gauge("variable.backup.rows-per-sec", () -> lastRowsPerSecond);
     log.info("Evaluate VariableBackupRepository max id");
     this.nextId = new AtomicInteger(getMaxId());
     log.info("Done evaluating VariableBackupRepository max id: {}", nextId);
@@ -48,11 +63,36 @@ public class VariableBackupRepository {
   }
 
   public void save(WorkspaceVariable variable, List<WorkspaceVariableMessage> values) {
-    tmc.executeInTransaction(em -> {
-      for (WorkspaceVariableMessage message : values) {
-        em.persist(new VariableBackup(nextId.incrementAndGet(), variable, message));
+    saveAll(Map.of(variable, values), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Insert backups of many variables in single transaction. Rows are sent to db by JDBC batches, persistence context is
+   * flushed and cleared after every batch, so it doesn't grow with count of rows
+   */
+  public int saveAll(Map<WorkspaceVariable, List<WorkspaceVariableMessage>> values, int batchSize) {
+    long started = System.nanoTime();
+    int size = Math.max(1, batchSize);
+    int rows = tmc.executeInTransaction(em -> {
+      em.unwrap(Session.class).setJdbcBatchSize(size);
+      int count = 0;
+      for (Map.Entry<WorkspaceVariable, List<WorkspaceVariableMessage>> entry : values.entrySet()) {
+        for (WorkspaceVariableMessage message : entry.getValue()) {
+          em.persist(new VariableBackup(nextId.incrementAndGet(), entry.getKey(), message));
+          if (++count % size == 0) {
+            em.flush();
+            em.clear();
+          }
+        }
       }
+      return count;
     });
+    long nanos = System.nanoTime() - started;
+    saveTimer.record(nanos);
+    savedRows.add(rows);
+    lastRowsPerSecond = nanos == 0 ? 0 : (long) (rows * 1_000_000_000D / nanos);
+    log.debug("Saved {} variable backups in {}ms ({} rows/s)", rows, TimeUnit.NANOSECONDS.toMillis(nanos), lastRowsPerSecond);
+    return rows;
   }
 
   public int count(WorkspaceVariable variable) {
@@ -79,13 +119,30 @@ public class VariableBackupRepository {
     });
   }
 
-  public int deleteButKeepDays(WorkspaceVariable variable, int days) {
-    LocalDate date = LocalDate.now().minusDays(days);
-    String jql = "delete from VariableBackup where workspaceVariable = :vid and created < :date";
-    return tmc.executeInTransaction(em -> {
-      return em.createQuery(jql)
-        .setParameter("vid", variable)
-        .setParameter("date", date.toEpochDay()).executeUpdate();
+  /**
+   * Delete backups older than 'days' of all passed variables by set based deletes over indexed 'created' column
+   */
+  public int deleteButKeepDays(Collection<WorkspaceVariable> variables, int days) {
+    if (variables.isEmpty()) {
+      return 0;
+    }
+    long started = System.nanoTime();
+    // 'created' keeps epoch millis
+    long since = LocalDate.now().minusDays(days).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    String jql = "delete from VariableBackup where created < :since and workspaceVariable in :vids";
+    List<WorkspaceVariable> list = List.copyOf(variables);
+    int deleted = tmc.executeInTransaction(em -> {
+      int count = 0;
+      // keep count of sql parameters under sqlite limit
+      for (int i = 0; i < list.size(); i += MAX_DELETE_PARAMETERS) {
+        count += em.createQuery(jql)
+          .setParameter("since", since)
+          .setParameter("vids", list.subList(i, Math.min(list.size(), i + MAX_DELETE_PARAMETERS)))
+          .executeUpdate();
+      }
+      return count;
     });
+    deleteTimer.recordSince(started);
+    return deleted;
   }
 }
@@ -0,0 +1,34 @@
+package org.homio.app.rest;
+
+import lombok.RequiredArgsConstructor;
+import org.homio.app.manager.CacheService;
+import org.homio.app.manager.InstrumentedCache.CacheStats;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.homio.api.util.Constants.ROLE_ADMIN_AUTHORIZE;
+
+@RestController
+@RequestMapping(value = "/rest/cache", produces = "application/json")
+@RequiredArgsConstructor
+public class CacheController {
+
+  private final CacheService cacheService;
+
+  @GetMapping("/stats")
+  @PreAuthorize(ROLE_ADMIN_AUTHORIZE)
+  public List<CacheStats> getStats() {
+    return cacheService.getStats();
+  }
+
+  @DeleteMapping
+  @PreAuthorize(ROLE_ADMIN_AUTHORIZE)
+  public void clearCache() {
+    cacheService.clearCache();
+  }
+}
@@ -86,6 +86,7 @@ import org.homio.api.widget.HasCustomWidget;
 import org.homio.app.LogService;
 import org.homio.app.config.cacheControl.CacheControl;
 import org.homio.app.config.cacheControl.CachePolicy;
+import org.homio.app.manager.LoggerService;
 import org.homio.app.manager.common.ClassFinder;
 import org.homio.app.manager.common.ContextImpl;
 import org.homio.app.manager.common.EntityManager;
@@ -137,6 +138,7 @@ public class ItemController implements ContextCreated, ContextRefreshed {
   private final EntityManager entityManager;
   private final ClassFinder classFinder;
   private final LogService logService;
+  private final LoggerService loggerService;
   private final ReentrantLock putItemsLock = new ReentrantLock();
   private final ReentrantLock updateItemLock = new ReentrantLock();
   private final Cache<String, Consumer<String>> fileSaveMapping =
@@ -404,6 +406,19 @@ public class ItemController implements ContextCreated, ContextRefreshed {
         HttpStatus.OK);
   }
 
+  @GetMapping(value = "/{entityID}/logs/tail")
+  public List<String> getLogsTail(
+      @PathVariable("entityID") String entityID,
+      @RequestParam(value = "lines", defaultValue = "100") int lines) {
+    UserGuestEntity.assertLogAccess(context);
+    BaseEntity entity = context.db().getRequire(entityID);
+    Path logFile = logService.getEntityLogsFile(entity);
+    if (logFile == null || !Files.exists(logFile)) {
+      throw new IllegalArgumentException("Unable to find log file path for entity: " + entityID);
+    }
+    return loggerService.getLogFileTail(logFile, lines);
+  }
+
   @GetMapping("/{type}/types")
   @CacheControl(maxAge = 3600, policy = CachePolicy.PUBLIC)
   public Set<OptionModel> getImplementationsByBaseType(@PathVariable("type") String type) {
@@ -19,10 +19,13 @@ import dev.failsafe.ExecutionContext;
 import dev.failsafe.Failsafe;
 import dev.failsafe.Fallback;
 import dev.failsafe.RetryPolicy;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.Files;
@@ -30,9 +33,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -43,6 +47,17 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.homio.addon.camera.entity.BaseCameraEntity;
 import org.homio.addon.camera.entity.CameraPlaybackStorage;
 import org.homio.addon.camera.entity.CameraPlaybackStorage.DownloadFile;
@@ -67,9 +82,9 @@ import org.homio.app.manager.common.impl.ContextMediaVideoImpl;
 import org.homio.app.model.entity.widget.impl.video.WidgetVideoSeriesEntity.VideoSeriesDataSourceDynamicOptionLoader;
 import org.homio.app.rest.FileSystemController.NodeRequest;
 import org.homio.app.spring.ContextCreated;
+import org.homio.app.utils.AppMetrics;
 import org.homio.app.video.ffmpeg.FfmpegHardwareRepository;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.cloud.gateway.mvc.ProxyExchange;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -124,6 +139,27 @@ public class MediaController implements ContextCreated {
 
   private final Map<String, StreamContext> streams = new ConcurrentHashMap<>();
 
+  private static final List<String> PROXY_REQUEST_HEADERS =
+      List.of(
+          HttpHeaders.ACCEPT,
+          HttpHeaders.RANGE,
+          HttpHeaders.IF_RANGE,
+          HttpHeaders.IF_NONE_MATCH,
+          HttpHeaders.IF_MODIFIED_SINCE);
+  private static final List<String> PROXY_RESPONSE_HEADERS =
+      List.of(
+          HttpHeaders.CONTENT_TYPE,
+          HttpHeaders.CONTENT_LENGTH,
+          CONTENT_RANGE,
+          ACCEPT_RANGES,
+          ETAG,
+          LAST_MODIFIED,
+          CACHE_CONTROL,
+          HttpHeaders.LOCATION);
+  private static final int PROXY_BUFFER_SIZE = 64 * 1024;
+  private static final BlockingQueue<byte[]> PROXY_BUFFERS = new ArrayBlockingQueue<>(32);
+  private CloseableHttpClient proxyHttpClient;
+
   @Override
   public void onContextCreated(ContextImpl context) throws Exception {
     context
@@ -133,6 +169,21 @@ public class MediaController implements ContextCreated {
         .execute(this::removeTimedOutStreams);
   }
 
+  @PreDestroy
+  public synchronized void closeProxyHttpClient() {
+    if (proxyHttpClient != null) {
+      // closes pooled connection manager as well
+      try {
+        proxyHttpClient.close();
+      } catch (Exception ex) {
+        log.warn("Unable to close media proxy http client: {}", getErrorMessage(ex));
+      }
+      proxyHttpClient = null;
+      AppMetrics.removeGauge("media.proxy.connections.leased");
+      AppMetrics.removeGauge("media.proxy.connections.available");
+    }
+  }
+
   @SneakyThrows
   @GetMapping("/stream/{streamID}/download")
   public ResponseEntity<InputStreamResource> downloadStream(
@@ -210,16 +261,17 @@ public class MediaController implements ContextCreated {
   }
 
   @PostMapping("/{entityID}/{provider}/video.webrtc")
-  public ResponseEntity<?> postVideoWebRTC(
+  public void postVideoWebRTC(
       @PathVariable("entityID") String entityID,
       @PathVariable("provider") String provider,
       HttpServletRequest request,
-      ProxyExchange<byte[]> proxy) {
+      HttpServletResponse response)
+      throws IOException {
     Integer port = ContextMediaVideoImpl.webRTCProviders.get(provider);
     if (port == null) {
       throw new IllegalArgumentException("Unable to find webrtc provider: " + provider);
     }
-    return proxyUrl(proxy, port, entityID, "whep", request.getQueryString(), ProxyExchange::post);
+    proxyUrl(Method.POST, port, entityID, "whep", request, response);
   }
 
   @PatchMapping("/{entityID}/mediamtx/video.webrtc")
@@ -228,33 +280,33 @@ public class MediaController implements ContextCreated {
   }
 
   @GetMapping("/{entityID}/{provider}/{filename}.m3u8")
-  public ResponseEntity<?> getMediaHls(
+  public void getMediaHls(
       @PathVariable("entityID") String entityID,
       @PathVariable("provider") String provider,
       @PathVariable("filename") String filename,
       HttpServletRequest request,
-      ProxyExchange<byte[]> proxy) {
+      HttpServletResponse response)
+      throws IOException {
     Integer port = ContextMediaVideoImpl.hlsProviders.get(provider);
     if (port == null) {
       throw new IllegalArgumentException("Unable to find webrtc provider: " + provider);
     }
-    return proxyUrl(
-        proxy, port, entityID, filename + ".m3u8", request.getQueryString(), ProxyExchange::get);
+    proxyUrl(Method.GET, port, entityID, filename + ".m3u8", request, response);
   }
 
   @GetMapping("/{entityID}/{provider}/{filename}.mp4")
-  public ResponseEntity<?> getHlsMp4(
+  public void getHlsMp4(
       @PathVariable("entityID") String entityID,
       @PathVariable("provider") String provider,
       @PathVariable("filename") String filename,
       HttpServletRequest request,
-      ProxyExchange<byte[]> proxy) {
+      HttpServletResponse response)
+      throws IOException {
     Integer port = ContextMediaVideoImpl.webRTCProviders.get(provider);
     if (port == null) {
       throw new IllegalArgumentException("Unable to find webrtc provider: " + provider);
     }
-    return proxyUrl(
-        proxy, port, entityID, filename + ".mp4", request.getQueryString(), ProxyExchange::get);
+    proxyUrl(Method.GET, port, entityID, filename + ".mp4", request, response);
   }
 
   @GetMapping("/video/playback/days/{entityID}/{from}/{to}")
@@ -538,24 +590,102 @@ public class MediaController implements ContextCreated {
         inputStream, response.mediaType(), headers, fileName, inputStream.available());
   }
 
-  private ResponseEntity<?> proxyUrl(
-      ProxyExchange<byte[]> proxy,
+  private synchronized CloseableHttpClient getProxyHttpClient() {
+    if (proxyHttpClient == null) {
+      PoolingHttpClientConnectionManager connectionManager =
+          PoolingHttpClientConnectionManagerBuilder.create()
+              .setMaxConnTotal(64)
+              .setMaxConnPerRoute(32)
+              .build();
+      // media servers run on localhost, keep-alive connections are reused between playlist/segment requests
+      proxyHttpClient =
+          HttpClients.custom()
+              .setConnectionManager(connectionManager)
+              .disableRedirectHandling()
+              .disableContentCompression()
+              .disableCookieManagement()
+              .build();
+      AppMetrics.gauge(
+          "media.proxy.connections.leased",
+          () -> connectionManager.getTotalStats().getLeased());
+      AppMetrics.gauge(
+          "media.proxy.connections.available",
+          () -> connectionManager.getTotalStats().getAvailable());
+    }
+    return proxyHttpClient;
+  }
+
+  /**
+   * Stream upstream media server response directly to servlet output without buffering whole playlist/segment in memory.
+   * Upstream connections are kept alive in pool, range and conditional request headers are passed through
+   */
+  private void proxyUrl(
+      Method method,
       int port,
       String entityID,
       String path,
-      String queryString,
-      Function<ProxyExchange<byte[]>, ResponseEntity<byte[]>> handler) {
-    if (queryString != null) {
-      path += "?" + queryString;
+      HttpServletRequest request,
+      HttpServletResponse response)
+      throws IOException {
+    long started = System.nanoTime();
+    if (request.getQueryString() != null) {
+      path += "?" + request.getQueryString();
+    }
+    ClassicHttpRequest upstreamRequest =
+        ClassicRequestBuilder.create(method.name())
+            .setUri("http://localhost:%s/%s/%s".formatted(port, entityID, path))
+            .build();
+    for (String header : PROXY_REQUEST_HEADERS) {
+      String value = request.getHeader(header);
+      if (value != null) {
+        upstreamRequest.setHeader(header, value);
+      }
+    }
+    if (method == Method.POST) {
+      String contentType = request.getContentType();
+      upstreamRequest.setEntity(
+          new InputStreamEntity(
+              request.getInputStream(),
+              request.getContentLengthLong(),
+              contentType == null ? null : ContentType.parse(contentType)));
+    }
+    getProxyHttpClient().execute(
+        upstreamRequest,
+        upstreamResponse -> {
+          response.setStatus(upstreamResponse.getCode());
+          for (String header : PROXY_RESPONSE_HEADERS) {
+            Header value = upstreamResponse.getFirstHeader(header);
+            if (value != null) {
+              response.setHeader(header, value.getValue());
+            }
+          }
+          response.setHeader(ACCESS_CONTROL_EXPOSE_HEADERS, "*");
+          HttpEntity entity = upstreamResponse.getEntity();
+          if (entity != null) {
+            try (InputStream inputStream = entity.getContent()) {
+              transfer(inputStream, response.getOutputStream());
+            }
+          }
+          return null;
+        });
+    AppMetrics.timer("media.proxy.request").recordSince(started);
+  }
+
+  private static void transfer(InputStream inputStream, OutputStream outputStream)
+      throws IOException {
+    byte[] buffer = PROXY_BUFFERS.poll();
+    if (buffer == null) {
+      buffer = new byte[PROXY_BUFFER_SIZE];
+    }
+    try {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        AppMetrics.counter("media.proxy.bytes").add(read);
+      }
+    } finally {
+      PROXY_BUFFERS.offer(buffer);
     }
-    ResponseEntity<byte[]> response =
-        handler.apply(proxy.uri("http://localhost:%s/%s/%s".formatted(port, entityID, path)));
-    HttpHeaders responseHeaders = new HttpHeaders();
-
-    responseHeaders.add(ACCESS_CONTROL_EXPOSE_HEADERS, "*");
-    return ResponseEntity.status(response.getStatusCode())
-        .headers(responseHeaders)
-        .body(response.getBody());
   }
 
   @SneakyThrows
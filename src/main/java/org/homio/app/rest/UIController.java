@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -29,15 +30,18 @@ public class UIController {
   public void multiDynamicUpdates(@Valid @RequestBody List<DynamicRequestItem> request) {
     for (DynamicRequestItem requestItem : request) {
       try {
-        context.ui().registerForUpdates(new DynamicUpdateRequest(requestItem.did, requestItem.eid));
+        context.ui().registerForUpdates(new DynamicUpdateRequest(requestItem.did, requestItem.eid), requestItem.sid,
+          requestItem.chartDelta);
       } catch (Exception ignored) {
       }
     }
   }
 
   @DeleteMapping("/dynamicUpdates")
-  public void unregisterForUpdates(@Valid @RequestBody DynamicUpdateRequest request) {
-    context.ui().unRegisterForUpdates(request);
+  public void unregisterForUpdates(
+    @Valid @RequestBody DynamicUpdateRequest request,
+    @RequestParam(value = "sid", required = false) String sid) {
+    context.ui().unRegisterForUpdates(request, sid);
   }
 
   @PostMapping("/web-driver/{entityID}/interact")
@@ -54,5 +58,9 @@ public class UIController {
 
     private String eid;
     private String did;
+    // ui session id, see ContextUIImpl.registerForUpdates(...)
+    private String sid;
+    // client applies WidgetChartsController.TimeSeriesChartDelta instead of expecting full chart on every update
+    private boolean chartDelta;
   }
 }
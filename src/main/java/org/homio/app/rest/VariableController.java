@@ -40,6 +40,7 @@ import org.homio.app.manager.common.ContextImpl;
 import org.homio.app.model.var.WorkspaceGroup;
 import org.homio.app.model.var.WorkspaceVariable;
 import org.homio.app.rest.widget.ChartDataset;
+import org.homio.app.rest.widget.ChartBuckets;
 import org.homio.app.rest.widget.EvaluateDatesAndValues;
 import org.homio.app.rest.widget.WidgetChartsController;
 import org.homio.app.rest.widget.WidgetChartsController.TimeSeriesChartData;
@@ -233,7 +234,7 @@ public class VariableController {
           IntStream.range(0, request.splitCount)
               .mapToObj(value -> new Date(min + delta * value))
               .collect(Collectors.toList());
-      List<List<Float>> values = convertValuesToFloat(dates, rawValues);
+      ChartBuckets values = convertValuesToFloat(dates, rawValues);
       chartData.setTimestamp(dates.stream().map(Date::getTime).collect(Collectors.toList()));
       dataset.setData(EvaluateDatesAndValues.aggregate(values, AggregationType.Average));
       chartData.getDatasets().add(dataset);
@@ -0,0 +1,200 @@
+package org.homio.app.rest.widget;
+
+import org.homio.api.entity.widget.AggregationType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Chart values split into time buckets. Values of all buckets are kept in one float[] ordered by bucket: bucket 'i' owns
+ * values[offsets[i]..offsets[i + 1]) in original time order
+ */
+public final class ChartBuckets {
+
+  private final int[] offsets;
+  private final float[] values;
+
+  private ChartBuckets(int[] offsets, float[] values) {
+    this.offsets = offsets;
+    this.values = values;
+  }
+
+  /**
+   * @param bucketStarts - sorted start time of every bucket. Point belongs to last bucket which start is <= point's time,
+   *                     points before first bucket are skipped
+   * @param chartItems   - [time(long or Date), value(Number)] pairs
+   */
+  public static @NotNull ChartBuckets build(long @NotNull [] bucketStarts, @NotNull List<Object[]> chartItems) {
+    int bucketCount = bucketStarts.length;
+    long step = getUniformStep(bucketStarts);
+    int[] pointBuckets = new int[chartItems.size()];
+    float[] pointValues = new float[chartItems.size()];
+    int[] offsets = new int[bucketCount + 1];
+    int points = 0;
+    for (Object[] chartItem : chartItems) {
+      long time = chartItem[0] instanceof Date date ? date.getTime() : (long) chartItem[0];
+      int bucket = step > 0 ? arithmeticIndex(bucketStarts, step, time) : binarySearchIndex(bucketStarts, time);
+      if (bucket >= 0) {
+        pointBuckets[points] = bucket;
+        pointValues[points++] = ((Number) chartItem[1]).floatValue();
+        offsets[bucket + 1]++;
+      }
+    }
+    for (int i = 0; i < bucketCount; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    // stable counting sort by bucket
+    float[] values = new float[points];
+    int[] positions = Arrays.copyOf(offsets, bucketCount);
+    for (int i = 0; i < points; i++) {
+      values[positions[pointBuckets[i]]++] = pointValues[i];
+    }
+    return new ChartBuckets(offsets, values);
+  }
+
+  public static long @NotNull [] toTimestamps(@NotNull List<Date> dates) {
+    long[] timestamps = new long[dates.size()];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = dates.get(i).getTime();
+    }
+    return timestamps;
+  }
+
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int count(int bucket) {
+    return offsets[bucket + 1] - offsets[bucket];
+  }
+
+  public float @NotNull [] values(int bucket) {
+    return Arrays.copyOfRange(values, offsets[bucket], offsets[bucket + 1]);
+  }
+
+  /**
+   * @return aggregated value of every bucket or null for bucket without values
+   */
+  public @NotNull List<Float> aggregate(@NotNull AggregationType aggregationType) {
+    List<Float> result = new ArrayList<>(size());
+    for (int bucket = 0; bucket < size(); bucket++) {
+      int from = offsets[bucket];
+      int to = offsets[bucket + 1];
+      result.add(from == to ? null : aggregate(aggregationType, values, from, to));
+    }
+    return result;
+  }
+
+  /**
+   * Aggregate first 'count' values of single bucket
+   *
+   * @return aggregated value or null if bucket has no values
+   */
+  public static @Nullable Float aggregate(@NotNull AggregationType aggregationType, float @NotNull [] values, int count) {
+    return count == 0 ? null : aggregate(aggregationType, values, 0, count);
+  }
+
+  private static Float aggregate(AggregationType aggregationType, float[] values, int from, int to) {
+    switch (aggregationType) {
+      case First:
+        return values[from];
+      case Last:
+        return values[to - 1];
+      case Count:
+        return (float) (to - from);
+      case Min: {
+        float min = values[from];
+        for (int i = from + 1; i < to; i++) {
+          min = Math.min(min, values[i]);
+        }
+        return min;
+      }
+      case Max: {
+        float max = values[from];
+        for (int i = from + 1; i < to; i++) {
+          max = Math.max(max, values[i]);
+        }
+        return max;
+      }
+      case Sum:
+        return (float) sum(values, from, to);
+      case Average:
+        return (float) (sum(values, from, to) / (to - from));
+      case AverageNoZero: {
+        double sum = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+          if (values[i] != 0) {
+            sum += values[i];
+            count++;
+          }
+        }
+        if (count > 0) {
+          return (float) (sum / count);
+        }
+        // all zeros, let aggregation decide
+        break;
+      }
+    }
+    float[] bucket = Arrays.copyOfRange(values, from, to);
+    if (aggregationType.isRequireSorting()) {
+      Arrays.sort(bucket);
+    }
+    return aggregationType.evaluate(IntStream.range(0, bucket.length).mapToObj(i -> bucket[i]));
+  }
+
+  private static double sum(float[] values, int from, int to) {
+    double sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  /**
+   * @return step if buckets are equidistant, so bucket of point may be calculated without search, otherwise 0
+   */
+  private static long getUniformStep(long[] bucketStarts) {
+    if (bucketStarts.length < 2) {
+      return 0;
+    }
+    long step = bucketStarts[1] - bucketStarts[0];
+    for (int i = 2; i < bucketStarts.length; i++) {
+      if (bucketStarts[i] - bucketStarts[i - 1] != step) {
+        return 0;
+      }
+    }
+    return step;
+  }
+
+  private static int arithmeticIndex(long[] bucketStarts, long step, long time) {
+    if (time < bucketStarts[0]) {
+      return -1;
+    }
+    return (int) Math.min((time - bucketStarts[0]) / step, bucketStarts.length - 1);
+  }
+
+  // index of last bucket which start <= time
+  private static int binarySearchIndex(long[] bucketStarts, long time) {
+    int low = 0;
+    int high = bucketStarts.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (bucketStarts[mid] <= time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low - 1;
+  }
+}
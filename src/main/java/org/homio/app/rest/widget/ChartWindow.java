@@ -0,0 +1,173 @@
+package org.homio.app.rest.widget;
+
+import org.homio.api.entity.widget.AggregationType;
+import org.homio.api.model.HasEntityIdentifier;
+import org.homio.app.model.entity.widget.impl.chart.HasChartDataSource;
+import org.homio.app.rest.widget.WidgetChartsController.TimeSeriesChartDelta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Buckets of time series chart which is shown on UI and receives dynamic updates. Keeps bucket starts of last full build
+ * and raw values of last (open) bucket of every dataset, so new points re-aggregate only last bucket and UI receives
+ * {@link TimeSeriesChartDelta} instead of whole chart. Point later than last bucket slides window by required number of
+ * buckets. Point before last bucket (closed buckets values are not kept) or slide by whole window requires full rebuild
+ */
+final class ChartWindow {
+
+  private long[] bucketStarts = new long[0];
+  private long step;
+  // seriesEntityID -> dataset id -> values of last bucket
+  private final Map<String, Map<String, OpenBucket>> openBuckets = new HashMap<>();
+  // seriesEntityID -> time of latest accounted point
+  private final Map<String, Long> lastPointTimes = new HashMap<>();
+
+  /**
+   * Take buckets and values of last bucket from full chart build
+   */
+  public synchronized <T extends HasChartDataSource> void reset(
+    @NotNull List<Date> dates, @NotNull List<TimeSeriesValues<T>> timeSeriesValuesList) {
+    bucketStarts = ChartBuckets.toTimestamps(dates);
+    int count = bucketStarts.length;
+    // snapshot dates are truncated to millis so step may differ by 1ms between buckets
+    step = count < 2 ? 0 : (bucketStarts[count - 1] - bucketStarts[0]) / (count - 1);
+    openBuckets.clear();
+    lastPointTimes.clear();
+
+    for (TimeSeriesValues<T> timeSeriesValues : timeSeriesValuesList) {
+      for (TimeSeriesContext<T> item : timeSeriesValues.getItemSeries()) {
+        String seriesEntityID = ((HasEntityIdentifier) item.getSeriesEntity()).getEntityID();
+        OpenBucket bucket = new OpenBucket(item.getSeriesEntity().getChartAggregationType());
+        ChartBuckets values = item.getValues();
+        if (values != null && values.size() == count && count > 0) {
+          for (float value : values.values(count - 1)) {
+            bucket.add(value);
+          }
+        }
+        openBuckets.computeIfAbsent(seriesEntityID, s -> new HashMap<>()).put(item.getId(), bucket);
+
+        long lastPointTime = count == 0 ? 0 : bucketStarts[0] - 1;
+        for (Object[] chartItem : item.getValue()) {
+          lastPointTime = Math.max(lastPointTime, (long) chartItem[0]);
+        }
+        lastPointTimes.merge(seriesEntityID, lastPointTime, Math::max);
+      }
+    }
+  }
+
+  /**
+   * @return time after which points of series are not accounted yet
+   */
+  public synchronized long getLastPointTime(@NotNull String seriesEntityID) {
+    return lastPointTimes.getOrDefault(seriesEntityID, 0L);
+  }
+
+  /**
+   * Put new points of series to window
+   *
+   * @param newPoints - dataset id to [time(long), value(Number)] pairs which are later than getLastPointTime(...)
+   * @return deltas to send to UI in order (one per changed bucket) or null if chart has to be fully rebuilt. Window is
+   * not modified if null returned
+   */
+  public synchronized @Nullable List<TimeSeriesChartDelta> append(
+    @NotNull String seriesEntityID, @NotNull Map<String, List<Object[]>> newPoints) {
+    Map<String, OpenBucket> datasets = openBuckets.get(seriesEntityID);
+    if (step <= 0 || datasets == null || !datasets.keySet().containsAll(newPoints.keySet())) {
+      return null;
+    }
+    int last = bucketStarts.length - 1;
+    // bucket index -> dataset id -> values. Index is relative to current window, 'last' is open bucket
+    Map<Integer, Map<String, List<Float>>> bucketPoints = new TreeMap<>();
+    long lastPointTime = getLastPointTime(seriesEntityID);
+    for (Map.Entry<String, List<Object[]>> entry : newPoints.entrySet()) {
+      for (Object[] chartItem : entry.getValue()) {
+        long time = (long) chartItem[0];
+        long index = time < bucketStarts[last] ? -1 : last + (time - bucketStarts[last]) / step;
+        if (index < last || index - last >= bucketStarts.length) {
+          // closed bucket changed or window rolled over
+          return null;
+        }
+        lastPointTime = Math.max(lastPointTime, time);
+        bucketPoints.computeIfAbsent((int) index, i -> new LinkedHashMap<>())
+                    .computeIfAbsent(entry.getKey(), id -> new ArrayList<>())
+                    .add(((Number) chartItem[1]).floatValue());
+      }
+    }
+
+    List<TimeSeriesChartDelta> deltas = new ArrayList<>(bucketPoints.size());
+    int openBucketIndex = last;
+    for (Map.Entry<Integer, Map<String, List<Float>>> entry : bucketPoints.entrySet()) {
+      List<Long> appendTimestamp = slide(entry.getKey() - openBucketIndex);
+      openBucketIndex = entry.getKey();
+
+      Map<String, Float> lastBucket = new HashMap<>();
+      for (Map.Entry<String, List<Float>> datasetPoints : entry.getValue().entrySet()) {
+        OpenBucket bucket = datasets.get(datasetPoints.getKey());
+        for (Float value : datasetPoints.getValue()) {
+          bucket.add(value);
+        }
+        lastBucket.put(datasetPoints.getKey(), bucket.aggregate());
+      }
+      deltas.add(new TimeSeriesChartDelta(appendTimestamp, seriesEntityID, lastBucket));
+    }
+    lastPointTimes.put(seriesEntityID, lastPointTime);
+    return deltas;
+  }
+
+  /**
+   * Drop 'buckets' from window start and open same number of buckets at the end. Open buckets of all series become
+   * closed
+   */
+  private List<Long> slide(int buckets) {
+    if (buckets == 0) {
+      return List.of();
+    }
+    int count = bucketStarts.length;
+    long lastStart = bucketStarts[count - 1];
+    System.arraycopy(bucketStarts, buckets, bucketStarts, 0, count - buckets);
+    List<Long> appendTimestamp = new ArrayList<>(buckets);
+    for (int i = 1; i <= buckets; i++) {
+      bucketStarts[count - buckets + i - 1] = lastStart + step * i;
+      appendTimestamp.add(lastStart + step * i);
+    }
+    for (Map<String, OpenBucket> datasets : openBuckets.values()) {
+      datasets.values().forEach(OpenBucket::clear);
+    }
+    return appendTimestamp;
+  }
+
+  private static final class OpenBucket {
+
+    private final AggregationType aggregationType;
+    private float[] values = new float[8];
+    private int size;
+
+    private OpenBucket(AggregationType aggregationType) {
+      this.aggregationType = aggregationType;
+    }
+
+    private void add(float value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    private void clear() {
+      size = 0;
+    }
+
+    private Float aggregate() {
+      return ChartBuckets.aggregate(aggregationType, values, size);
+    }
+  }
+}
@@ -5,29 +5,15 @@ import org.homio.api.ui.field.selection.dynamic.HasDynamicParameterFields;
 import org.homio.app.model.entity.widget.attributes.HasChartTimePeriod;
 import org.homio.app.model.entity.widget.impl.chart.HasChartDataSource;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public final class EvaluateDatesAndValues {
 
-  public static List<Float> aggregate(List<List<Float>> values, AggregationType aggregationType) {
-    return values.stream().map(items -> {
-        if (items.isEmpty()) {
-          return null;
-        }/* else if (items.size() == 1) {
-                        return items.get(0);
-                    }*/
-        Stream<Float> stream = items.stream();
-        if (aggregationType.isRequireSorting()) {
-          stream = stream.sorted();
-        }
-        return aggregationType.evaluate(stream);
-      })
-      .collect(Collectors.toList());
+  public static List<Float> aggregate(ChartBuckets values, AggregationType aggregationType) {
+    return values.aggregate(aggregationType);
   }
 
   public static <T extends HasDynamicParameterFields & HasChartDataSource>
@@ -81,33 +67,21 @@ public final class EvaluateDatesAndValues {
     return dates;
   }
 
-  public static List<List<Float>> convertValuesToFloat(List<Date> dates, List<Object[]> chartItems) {
-    List<List<Float>> values = new ArrayList<>(dates.size());
-    IntStream.range(0, dates.size()).forEach(value -> values.add(new ArrayList<>()));
-    // push values to date between buckets
-    for (Object[] chartItem : chartItems) {
-      long time =
-        chartItem[0] instanceof Date
-          ? ((Date) chartItem[0]).getTime()
-          : (long) chartItem[0];
-      int index = getDateIndex(dates, time);
-      if (index >= 0) {
-        values.get(index).add(((Number) chartItem[1]).floatValue());
-      }
-    }
-    return values;
+  public static ChartBuckets convertValuesToFloat(List<Date> dates, List<Object[]> chartItems) {
+    return ChartBuckets.build(ChartBuckets.toTimestamps(dates), chartItems);
   }
 
   private static <T extends HasDynamicParameterFields & HasChartDataSource> void fulfillValues(
     List<Date> dates, List<TimeSeriesValues<T>> timeSeriesValues) {
     //  List<Iterator<List<Float>>> fullChartValueIterators = new ArrayList<>();
+    long[] bucketStarts = ChartBuckets.toTimestamps(dates);
 
     for (TimeSeriesValues<T> timeSeriesValue : timeSeriesValues) {
       for (TimeSeriesContext<T> timeSeriesContext : timeSeriesValue.getItemSeries()) {
         if (timeSeriesContext.getValue().isEmpty()) {
           continue;
         }
-        List<List<Float>> values = convertValuesToFloat(dates, timeSeriesContext.getValue());
+        ChartBuckets values = ChartBuckets.build(bucketStarts, timeSeriesContext.getValue());
         timeSeriesContext.setValues(values);
 
         //  fullChartValueIterators.add(values.iterator());
@@ -130,13 +104,4 @@ public final class EvaluateDatesAndValues {
             }
         }*/
   }
-
-  private static int getDateIndex(List<Date> dateList, long time) {
-    for (int i = 0; i < dateList.size(); i++) {
-      if (time < dateList.get(i).getTime()) {
-        return i - 1;
-      }
-    }
-    return dateList.size() - 1;
-  }
 }
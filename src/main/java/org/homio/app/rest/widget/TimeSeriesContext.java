@@ -25,7 +25,7 @@ public class TimeSeriesContext<T extends HasChartDataSource> {
   private List<Object[]> value;
 
   @Setter
-  private List<List<Float>> values;
+  private ChartBuckets values;
 
   @Override
   public boolean equals(Object o) {
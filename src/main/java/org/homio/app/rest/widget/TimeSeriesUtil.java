@@ -18,6 +18,7 @@ import org.homio.app.model.entity.widget.attributes.HasChartTimePeriod.TimeRange
 import org.homio.app.model.entity.widget.attributes.HasSingleValueDataSource;
 import org.homio.app.model.entity.widget.impl.chart.HasChartDataSource;
 import org.homio.app.service.mem.InMemoryDB;
+import org.homio.app.utils.AppMetrics;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
@@ -26,12 +27,14 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -41,11 +44,24 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 @RequiredArgsConstructor
 public class TimeSeriesUtil {
 
+  private static final LongAdder DELTA_UPDATES = AppMetrics.counter("chart.update.delta");
+  private static final LongAdder FULL_UPDATES = AppMetrics.counter("chart.update.full");
+
   private final ContextImpl context;
 
   public <T extends HasDynamicParameterFields & HasChartDataSource & HasEntityIdentifier> WidgetChartsController.TimeSeriesChartData<ChartDataset>
   buildTimeSeriesFullData(String entityID, HasChartTimePeriod.TimePeriod timePeriod,
                           boolean addUpdateListener, Set<T> series) {
+    ChartWindow chartWindow = addUpdateListener ? new ChartWindow() : null;
+    return buildTimeSeriesFullData(entityID, timePeriod, chartWindow, addUpdateListener, series);
+  }
+
+  /**
+   * @param chartWindow - window that receives incremental updates of chart, reset with new buckets if not null
+   */
+  private <T extends HasDynamicParameterFields & HasChartDataSource & HasEntityIdentifier> WidgetChartsController.TimeSeriesChartData<ChartDataset>
+  buildTimeSeriesFullData(String entityID, HasChartTimePeriod.TimePeriod timePeriod, @Nullable ChartWindow chartWindow,
+                          boolean addUpdateListener, Set<T> series) {
 
     List<TimeSeriesValues<T>> timeSeriesValuesList = new ArrayList<>(series.size());
 
@@ -67,6 +83,9 @@ public class TimeSeriesUtil {
     if (!timeSeriesValuesList.isEmpty()) {
       List<Date> dates = EvaluateDatesAndValues.calculateDates(timeRange, timeSeriesValuesList);
       timeSeriesChartData.setTimestamp(dates.stream().map(Date::getTime).collect(Collectors.toList()));
+      if (chartWindow != null) {
+        chartWindow.reset(dates, timeSeriesValuesList);
+      }
     }
 
     for (TimeSeriesValues<T> timeSeriesValues : timeSeriesValuesList) {
@@ -77,7 +96,7 @@ public class TimeSeriesUtil {
 
         // add update listeners
         if (addUpdateListener) {
-          addChangeListenerForTimeSeriesEntity(item, timePeriod, seriesEntityID, series, timeSeriesValues.getSource());
+          addChangeListenerForTimeSeriesEntity(item, timePeriod, seriesEntityID, series, timeSeriesValues.getSource(), chartWindow);
         }
       }
     }
@@ -85,12 +104,18 @@ public class TimeSeriesUtil {
     return timeSeriesChartData;
   }
 
-  public <T extends HasDynamicParameterFields & HasChartDataSource & HasEntityIdentifier> void addChangeListenerForTimeSeriesEntity(
+  /**
+   * Listen source changes and send to UI only changed last bucket of chart. Chart is rebuilt and sent fully only if
+   * window rolled over, closed bucket changed or set of datasets changed. UI reconnect requests chart again and gets new
+   * window. Deltas are sent only if all registered clients declared chart delta support, otherwise full chart is sent
+   */
+  private <T extends HasDynamicParameterFields & HasChartDataSource & HasEntityIdentifier> void addChangeListenerForTimeSeriesEntity(
     @NotNull TimeSeriesContext<T> timeSeriesContext,
     @NotNull HasChartTimePeriod.TimePeriod timePeriod,
     @NotNull String entityID,
     @NotNull Set<T> series,
-    @NotNull Object source) {
+    @NotNull Object source,
+    @NotNull ChartWindow chartWindow) {
 
     HasTimeValueSeries sourceValue = (HasTimeValueSeries) source;
     T item = timeSeriesContext.getSeriesEntity();
@@ -98,15 +123,27 @@ public class TimeSeriesUtil {
     var listener = (sourceValue).addUpdateValueListener(context, entityID,
       Duration.ofSeconds(60), item.getChartDynamicParameterFields(),
       o -> {
-        var cts = buildTimeSeriesFromDataSource(timePeriod.snapshot(), item, timeSeriesContext.getSeries());
-        boolean isEqualContext = timeSeriesContext.getOwner().isEqualSeries(cts);
-
-        // if context was updated - we need update rest of values also !!!
-        if (!isEqualContext) {
-          WidgetChartsController.TimeSeriesChartData<ChartDataset> fullUpdatedData =
-            this.buildTimeSeriesFullData(entityID, timePeriod, false, series);
-
-          context.ui().sendDynamicUpdateImpl(dataSourceEntityID, entityID, fullUpdatedData);
+        // query since last point and append must not interleave, otherwise same points may be accounted twice
+        synchronized (chartWindow) {
+          Map<String, List<Object[]>> newPoints =
+            getTimeSeriesAfter(chartWindow.getLastPointTime(entityID), item, timeSeriesContext.getSeries());
+          if (newPoints.isEmpty()) {
+            return;
+          }
+          // only clients registered with chart delta capability understand deltas, rest of clients expect full chart
+          List<WidgetChartsController.TimeSeriesChartDelta> deltas =
+            context.ui().isChartDeltaUpdate(dataSourceEntityID, entityID) ? chartWindow.append(entityID, newPoints) : null;
+          if (deltas != null) {
+            DELTA_UPDATES.increment();
+            for (WidgetChartsController.TimeSeriesChartDelta delta : deltas) {
+              context.ui().sendDynamicUpdateImpl(dataSourceEntityID, entityID, delta);
+            }
+          } else {
+            FULL_UPDATES.increment();
+            WidgetChartsController.TimeSeriesChartData<ChartDataset> fullUpdatedData =
+              this.buildTimeSeriesFullData(entityID, timePeriod, chartWindow, false, series);
+            context.ui().sendDynamicUpdateImpl(dataSourceEntityID, entityID, fullUpdatedData);
+          }
         }
       });
     context.ui().setUpdateListenerRefreshHandler(dataSourceEntityID, entityID, listener);
@@ -200,6 +237,32 @@ public class TimeSeriesUtil {
     return result;
   }
 
+  /**
+   * @return dataset id to points with time > 'afterTime' converted to [time(long), value]. Datasets without new points
+   * are skipped
+   */
+  private <T extends HasDynamicParameterFields & HasChartDataSource> Map<String, List<Object[]>>
+  getTimeSeriesAfter(long afterTime, T item, HasTimeValueSeries source) {
+    PeriodRequest periodRequest = new PeriodRequest(context, new Date(afterTime + 1), null)
+      .setParameters(item.getChartDynamicParameterFields());
+    Map<String, List<Object[]>> result = new HashMap<>();
+    for (Map.Entry<HasTimeValueSeries.TimeValueDatasetDescription, List<Object[]>> entry :
+      source.getMultipleTimeValueSeries(periodRequest).entrySet()) {
+      List<Object[]> points = new ArrayList<>(entry.getValue().size());
+      for (Object[] chartItem : entry.getValue()) {
+        long time = chartItem[0] instanceof Date date ? date.getTime() : (long) chartItem[0];
+        // source may ignore exact 'from' bound
+        if (time > afterTime) {
+          points.add(new Object[]{time, chartItem[1]});
+        }
+      }
+      if (!points.isEmpty()) {
+        result.put(entry.getKey().getId(), points);
+      }
+    }
+    return result;
+  }
+
   private <T extends WidgetEntity<T>, R> R getValueFromGetStatusValue(
     @NotNull Function<Object, R> resultConverter,
     JSONObject dynamicParameters,
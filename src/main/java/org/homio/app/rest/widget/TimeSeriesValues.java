@@ -19,22 +19,4 @@ public class TimeSeriesValues<T extends HasChartDataSource> {
       timeSeriesContext.setOwner(this);
     }
   }
-
-  public boolean isEqualSeries(Set<TimeSeriesContext<T>> updatedContext) {
-    if (this.itemSeries.equals(updatedContext)) {
-      for (TimeSeriesContext<T> item : this.itemSeries) {
-        TimeSeriesContext<T> otherItem =
-          updatedContext.stream()
-            .filter(c -> c.getId().equals(item.getId()))
-            .findAny()
-            .get();
-
-        if (!item.getValue().equals(otherItem.getValue())) {
-          return false;
-        }
-      }
-      return true;
-    }
-    return false;
-  }
 }
@@ -28,6 +28,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Log4j2
 @RestController
@@ -142,6 +143,18 @@ public class WidgetChartsController {
   public record SingleValueData(Object value, String seriesEntityID) {
   }
 
+  /**
+   * Incremental update of time series chart. Sent only if all clients registered for updates with 'chartDelta'. UI drops
+   * from chart start as many buckets as 'appendTimestamp' has and appends them to the end (without values), then
+   * replaces value of last bucket for every dataset in 'lastBucket'
+   *
+   * @param appendTimestamp - start of buckets that are opened since previous update, may be empty
+   * @param seriesEntityID  - series which datasets are updated
+   * @param lastBucket      - dataset id to aggregated value of last bucket
+   */
+  public record TimeSeriesChartDelta(List<Long> appendTimestamp, String seriesEntityID, Map<String, Float> lastBucket) {
+  }
+
   public record DisplayDataResponse(List<Object> values, TimeSeriesChartData<ChartDataset> chart) {
 
   }
@@ -0,0 +1,289 @@
+package org.homio.app.service.device;
+
+import org.apache.commons.lang3.StringUtils;
+import org.homio.api.fs.FileSystemProvider.SearchCallback;
+import org.homio.api.fs.FileSystemProvider.SearchParameters;
+import org.homio.api.fs.TreeNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.homio.api.util.CommonUtils.TIKA;
+
+/**
+ * Single search request over local file system. Paths come either from file system walk or from LocalFileSystemIndex. Name is
+ * matched in calling thread, content of files is checked in bounded pool by byte search over chunks read from file. Results are streamed to
+ * callback as soon as found
+ */
+final class LocalFileSearch {
+
+  // ignore check text content if file > 10mb
+  private static final long MAX_CONTENT_SEARCH_SIZE = 10L * 1024 * 1024;
+  private static final int CONTENT_SEARCH_CHUNK_SIZE = 64 * 1024;
+  private static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+  private final @NotNull SearchParameters request;
+  private final @Nullable Pattern namePattern;
+  private final @NotNull SearchCallback callback;
+  private final @NotNull BooleanSupplier stopped;
+  private final @NotNull Function<Path, TreeNode> nodeBuilder;
+  private final @Nullable String searchText;
+  // searched text as utf-8 bytes, ascii folded to lower case if search is case-insensitive
+  private final byte @Nullable [] needle;
+  // case-insensitive search of non-ascii text can't be done on bytes
+  private final boolean byteSearch;
+  private final @Nullable ThreadPoolExecutor pool;
+  private final AtomicInteger resultCount = new AtomicInteger();
+
+  LocalFileSearch(@NotNull SearchParameters request, @NotNull SearchCallback callback, @NotNull BooleanSupplier stopped,
+                  @NotNull Function<Path, TreeNode> nodeBuilder) {
+    this.request = request;
+    this.callback = callback;
+    this.stopped = stopped;
+    this.nodeBuilder = nodeBuilder;
+    this.namePattern = StringUtils.isEmpty(request.searchFor()) ? null :
+      Pattern.compile(Pattern.quote(request.searchFor()), Pattern.CASE_INSENSITIVE);
+    if (StringUtils.isEmpty(request.searchText())) {
+      this.searchText = null;
+      this.needle = null;
+      this.byteSearch = true;
+      this.pool = null;
+    } else {
+      this.searchText = request.caseSensitive() ? request.searchText() : request.searchText().toLowerCase();
+      this.needle = request.searchText().getBytes(StandardCharsets.UTF_8);
+      this.byteSearch = request.caseSensitive() || StandardCharsets.US_ASCII.newEncoder().canEncode(request.searchText());
+      if (!request.caseSensitive()) {
+        for (int i = 0; i < needle.length; i++) {
+          needle[i] = foldCase(needle[i]);
+        }
+      }
+      this.pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(POOL_SIZE * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+  }
+
+  public void scan(@NotNull Path root) throws IOException {
+    Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), request.subdirDepth(), new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        return visitFile(dir, attrs);
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (isCancelled()) {
+          return FileVisitResult.TERMINATE;
+        }
+        check(file, attrs.isDirectory(), isHidden(file), attrs.size());
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  public void search(@NotNull Path root, @NotNull LocalFileSystemIndex index) {
+    Set<Path> candidates = null;
+    if (needle != null && byteSearch && !request.revertSearch()) {
+      // content index keeps lower case trigrams
+      byte[] folded = needle.clone();
+      for (int i = 0; i < folded.length; i++) {
+        folded[i] = foldCase(folded[i]);
+      }
+      candidates = index.findContentCandidates(folded);
+    }
+    for (Map.Entry<Path, LocalFileSystemIndex.FileEntry> entry : index.entries()) {
+      if (isCancelled()) {
+        return;
+      }
+      Path path = entry.getKey();
+      if (!path.startsWith(root) || root.relativize(path).getNameCount() > request.subdirDepth()) {
+        continue;
+      }
+      if (candidates != null && index.isContentIndexed(path) && !candidates.contains(path)) {
+        continue;
+      }
+      LocalFileSystemIndex.FileEntry file = entry.getValue();
+      check(path, file.directory(), file.hidden(), file.size());
+    }
+  }
+
+  /**
+   * Wait for all content checks
+   */
+  public void await() throws InterruptedException {
+    if (pool != null) {
+      pool.shutdown();
+      while (!pool.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+        if (stopped.getAsBoolean()) {
+          pool.shutdownNow();
+          return;
+        }
+      }
+    }
+  }
+
+  private void check(Path path, boolean directory, boolean hidden, long size) {
+    if (hidden) {
+      return;
+    }
+    if (directory && needle == null) {
+      if (!request.searchFolder()) {
+        return;
+      }
+    } else if (!request.searchFiles()) {
+      return;
+    }
+    if (namePattern != null) {
+      Path fileName = path.getFileName();
+      if (!namePattern.matcher(fileName == null ? path.toString() : fileName.toString()).find()) {
+        return;
+      }
+    }
+    if (pool != null && !directory) {
+      pool.execute(() -> {
+        if (!isCancelled() && (!isTextFile(path) || request.revertSearch() != containsText(path, size))) {
+          found(path);
+        }
+      });
+      return;
+    }
+    found(path);
+  }
+
+  private void found(Path path) {
+    if (resultCount.incrementAndGet() <= request.maxResults()) {
+      TreeNode treeNode = nodeBuilder.apply(path);
+      treeNode.setName(path.toAbsolutePath().toString());
+      synchronized (callback) {
+        callback.found(treeNode);
+      }
+    }
+  }
+
+  private boolean isCancelled() {
+    return stopped.getAsBoolean() || resultCount.get() >= request.maxResults();
+  }
+
+  private boolean containsText(Path path, long size) {
+    if (size > MAX_CONTENT_SEARCH_SIZE || needle == null || searchText == null) {
+      return false;
+    }
+    try {
+      if (!byteSearch) {
+        return Files.readString(path).toLowerCase().contains(searchText);
+      }
+      return containsBytes(path, needle, !request.caseSensitive());
+    } catch (Exception ignore) {
+      return false;
+    }
+  }
+
+  /**
+   * Search by positional reads of fixed size chunks, consecutive chunks overlap by needle length - 1 so match on chunk border
+   * isn't lost. File isn't memory mapped, mapping blocks rename/delete of file on Windows until buffer is collected
+   */
+  private static boolean containsBytes(Path path, byte[] needle, boolean foldCase) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < needle.length) {
+        return false;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, Math.max(CONTENT_SEARCH_CHUNK_SIZE, needle.length * 2)));
+      byte first = needle[0];
+      long position = 0;
+      while (position <= size - needle.length) {
+        buffer.clear();
+        int read = channel.read(buffer, position);
+        if (read < needle.length) {
+          return false;
+        }
+        int limit = read - needle.length;
+        for (int i = 0; i <= limit; i++) {
+          byte value = buffer.get(i);
+          if ((foldCase ? foldCase(value) : value) != first) {
+            continue;
+          }
+          int j = 1;
+          while (j < needle.length) {
+            value = buffer.get(i + j);
+            if ((foldCase ? foldCase(value) : value) != needle[j]) {
+              break;
+            }
+            j++;
+          }
+          if (j == needle.length) {
+            return true;
+          }
+        }
+        position += limit + 1;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Detect text file by name, and for unknown extensions by absence of zero bytes in file header
+   */
+  static boolean isTextFile(@NotNull Path path) {
+    Path fileName = path.getFileName();
+    String mimeType = fileName == null ? "" : TIKA.detect(fileName.toString());
+    if (mimeType.startsWith("text/")) {
+      return true;
+    }
+    if (!"application/octet-stream".equals(mimeType)) {
+      return false;
+    }
+    try (InputStream stream = Files.newInputStream(path)) {
+      byte[] header = stream.readNBytes(1024);
+      for (byte value : header) {
+        if (value == 0) {
+          return false;
+        }
+      }
+      return header.length > 0;
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+
+  static byte foldCase(byte value) {
+    return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+  }
+
+  /**
+   * Same predicate is used by walk search and by LocalFileSystemIndex, so both search modes skip same files
+   */
+  static boolean isHidden(@NotNull Path path) {
+    try {
+      return Files.isHidden(path);
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+}
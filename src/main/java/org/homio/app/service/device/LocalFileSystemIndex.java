@@ -0,0 +1,256 @@
+package org.homio.app.service.device;
+
+import lombok.extern.log4j.Log4j2;
+import org.homio.api.util.CommonUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.homio.hquery.Curl.ONE_MB;
+
+/**
+ * Background index of file names, sizes and modification times under file system root. Optionally keeps trigram index of
+ * text files content, so content search has to verify only files that contain all trigrams of searched text. Index is built
+ * once in background and kept fresh with WatchService
+ */
+@Log4j2
+final class LocalFileSystemIndex {
+
+  private static final Map<Path, LocalFileSystemIndex> indexes = new ConcurrentHashMap<>();
+  private static final long MAX_CONTENT_INDEX_SIZE = ONE_MB;
+
+  private final @NotNull Path root;
+  private final boolean contentIndex;
+  private final Map<Path, FileEntry> files = new ConcurrentHashMap<>();
+  // trigram -> files which lower case content contains trigram
+  private final Map<Integer, Set<Path>> trigrams = new ConcurrentHashMap<>();
+  private final Map<Path, int[]> fileTrigrams = new ConcurrentHashMap<>();
+  private final Map<WatchKey, Path> watchKeys = new ConcurrentHashMap<>();
+  private volatile boolean ready;
+  private WatchService watchService;
+
+  private LocalFileSystemIndex(@NotNull Path root, boolean contentIndex) {
+    this.root = root;
+    this.contentIndex = contentIndex;
+  }
+
+  public static @NotNull LocalFileSystemIndex getOrStart(@NotNull Path root, boolean contentIndex) {
+    return indexes.computeIfAbsent(root, path -> {
+      LocalFileSystemIndex index = new LocalFileSystemIndex(path, contentIndex);
+      Thread thread = new Thread(index::run, "fs-index-" + path.getFileName());
+      thread.setDaemon(true);
+      thread.start();
+      return index;
+    });
+  }
+
+  /**
+   * Index is ready when initial scan is finished. Search has to walk file system until then
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  public @NotNull Collection<Map.Entry<Path, FileEntry>> entries() {
+    return files.entrySet();
+  }
+
+  public boolean isContentIndexed(@NotNull Path path) {
+    return fileTrigrams.containsKey(path);
+  }
+
+  /**
+   * @param needle - searched text in lower case (ascii folded) utf-8 bytes
+   * @return content indexed files that may contain needle or null if index can't narrow search
+   */
+  public @Nullable Set<Path> findContentCandidates(byte @NotNull [] needle) {
+    if (!contentIndex || needle.length < 3) {
+      return null;
+    }
+    List<Set<Path>> postings = new ArrayList<>();
+    for (Integer trigram : toTrigrams(needle, needle.length)) {
+      Set<Path> paths = trigrams.get(trigram);
+      if (paths == null) {
+        return Set.of();
+      }
+      postings.add(paths);
+    }
+    postings.sort(Comparator.comparingInt(Set::size));
+    Set<Path> candidates = new HashSet<>();
+    for (Path path : postings.get(0)) {
+      boolean matches = true;
+      for (int i = 1; i < postings.size() && matches; i++) {
+        matches = postings.get(i).contains(path);
+      }
+      if (matches) {
+        candidates.add(path);
+      }
+    }
+    return candidates;
+  }
+
+  private void run() {
+    try (WatchService ws = root.getFileSystem().newWatchService()) {
+      watchService = ws;
+      scan(root);
+      ready = true;
+      log.info("File system index of {} is ready. Files: {}", root, files.size());
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = ws.take();
+        Path dir = watchKeys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW || dir == null) {
+            rescan();
+            continue;
+          }
+          Path path = dir.resolve((Path) event.context());
+          if (event.kind() == ENTRY_DELETE) {
+            remove(path);
+          } else if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            scan(path);
+          } else {
+            update(path);
+          }
+        }
+        if (!key.reset()) {
+          watchKeys.remove(key);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ignore) {
+    } catch (Exception ex) {
+      log.error("File system index of {} stopped: {}", root, CommonUtils.getErrorMessage(ex));
+    }
+    indexes.remove(root, this);
+  }
+
+  private void rescan() throws IOException {
+    for (WatchKey key : watchKeys.keySet()) {
+      key.cancel();
+    }
+    watchKeys.clear();
+    files.clear();
+    trigrams.clear();
+    fileTrigrams.clear();
+    scan(root);
+  }
+
+  private void scan(Path start) throws IOException {
+    Files.walkFileTree(start, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        try {
+          watchKeys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+        } catch (IOException ex) {
+          log.warn("Unable to watch directory {}: {}", dir, CommonUtils.getErrorMessage(ex));
+        }
+        put(dir, attrs);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        put(file, attrs);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(Path file, IOException exc) {
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void update(Path path) {
+    try {
+      put(path, Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+    } catch (IOException ex) {
+      remove(path);
+    }
+  }
+
+  private void put(Path path, BasicFileAttributes attrs) {
+    boolean hidden = LocalFileSearch.isHidden(path);
+    FileEntry previous = files.put(path, new FileEntry(attrs.isDirectory(), hidden, attrs.size(), attrs.lastModifiedTime().toMillis()));
+    if (contentIndex && attrs.isRegularFile()
+        && (previous == null || previous.modified != attrs.lastModifiedTime().toMillis() || previous.size != attrs.size())) {
+      indexContent(path, attrs.size());
+    }
+  }
+
+  private void remove(Path path) {
+    files.keySet().removeIf(p -> p.startsWith(path));
+    for (Path indexed : fileTrigrams.keySet()) {
+      if (indexed.startsWith(path)) {
+        removeContent(indexed);
+      }
+    }
+  }
+
+  private void indexContent(Path path, long size) {
+    removeContent(path);
+    if (size == 0 || size > MAX_CONTENT_INDEX_SIZE || !LocalFileSearch.isTextFile(path)) {
+      return;
+    }
+    try {
+      byte[] content = Files.readAllBytes(path);
+      for (int i = 0; i < content.length; i++) {
+        content[i] = LocalFileSearch.foldCase(content[i]);
+      }
+      Set<Integer> contentTrigrams = toTrigrams(content, content.length);
+      int[] keys = new int[contentTrigrams.size()];
+      int i = 0;
+      for (Integer trigram : contentTrigrams) {
+        keys[i++] = trigram;
+        trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(path);
+      }
+      fileTrigrams.put(path, keys);
+    } catch (IOException ignore) {
+    }
+  }
+
+  private void removeContent(Path path) {
+    int[] keys = fileTrigrams.remove(path);
+    if (keys != null) {
+      for (int key : keys) {
+        Set<Path> paths = trigrams.get(key);
+        if (paths != null) {
+          paths.remove(path);
+        }
+      }
+    }
+  }
+
+  private static Set<Integer> toTrigrams(byte[] data, int length) {
+    Set<Integer> result = new HashSet<>();
+    for (int i = 0; i + 2 < length; i++) {
+      result.add((data[i] & 0xFF) << 16 | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF));
+    }
+    return result;
+  }
+
+  public record FileEntry(boolean directory, boolean hidden, long size, long modified) {
+  }
+}
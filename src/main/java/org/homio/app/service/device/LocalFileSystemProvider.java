@@ -19,7 +19,6 @@ import org.json.JSONObject;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
@@ -43,17 +42,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
-import static java.util.regex.Pattern.compile;
 import static org.apache.commons.lang3.StringUtils.trimToEmpty;
 import static org.homio.api.fs.BaseCachedFileSystemProvider.fixPath;
 import static org.homio.api.util.CommonUtils.TIKA;
@@ -72,16 +66,6 @@ public class LocalFileSystemProvider implements FileSystemProvider {
     this.updateBasePath();
   }
 
-  private static @Nullable Matcher getFileSearchMather(@NotNull SearchParameters request) {
-    Matcher fileMatcher = null;
-    if (StringUtils.isNotEmpty(request.searchFor())) {
-      String quotedRequestFor = Pattern.quote(request.searchFor());
-      Pattern filePattern = compile(quotedRequestFor, Pattern.CASE_INSENSITIVE);
-      fileMatcher = filePattern.matcher("");
-    }
-    return fileMatcher;
-  }
-
   @Override
   public Path getArchiveAsLocalPath(@NotNull String id) {
     Path path = buildPath(id);
@@ -570,95 +554,33 @@ public class LocalFileSystemProvider implements FileSystemProvider {
     return rootPath;
   }
 
-  // very slow implementation )))
   @SneakyThrows
   @Override
   public @Nullable SearchThread search(@NotNull SearchParameters request, @NotNull SearchCallback searchCallback) {
-    Matcher fileMatcher = getFileSearchMather(request);
+    Path root = Paths.get(entity.getFileSystemRoot());
+    // optional background index, content index requires much more memory
+    LocalFileSystemIndex index = entity.context().setting().getEnv("fs-search-index", false, true)
+      ? LocalFileSystemIndex.getOrStart(root, entity.context().setting().getEnv("fs-search-content-index", false, true))
+      : null;
 
-    AtomicInteger resultCount = new AtomicInteger(0);
     AtomicReference<ContextBGP.ThreadContext<Object>> threadRef = new AtomicReference<>();
     threadRef.set(entity.context().bgp().builder("searching")
       .delay(Duration.ofMillis(200))
       .execute(context -> {
-        try (Stream<Path> stream = Files.walk(Paths.get(entity.getFileSystemRoot()), request.subdirDepth())) {
-          stream.parallel().forEach(path -> {
-            if (context.isStopped()) {
-              throw new CancellationException("Search stopped");
-            }
-            if (acceptSearch(request, path, fileMatcher)) {
-              if (resultCount.incrementAndGet() > request.maxResults()) {
-                searchCallback.done();
-                threadRef.get().cancel();
-              }
-              TreeNode treeNode = buildTreeNode(path, path.toFile());
-              treeNode.setName(path.toAbsolutePath().toString());
-              searchCallback.found(treeNode);
-            }
-          });
+        LocalFileSearch search = new LocalFileSearch(request, searchCallback, context::isStopped,
+          path -> buildTreeNode(path, path.toFile()));
+        try {
+          if (index != null && index.isReady()) {
+            search.search(root, index);
+          } else {
+            search.scan(root);
+          }
+        } finally {
+          search.await();
         }
         searchCallback.done();
         return null;
       }));
     return () -> threadRef.get().cancel();
   }
-
-  private boolean acceptSearch(@NotNull FileSystemProvider.SearchParameters request, Path path, Matcher fileMatcher) {
-    try {
-      if (Files.isHidden(path)) {
-        return false;
-      }
-      boolean searchInFiles = StringUtils.isNotEmpty(request.searchText());
-      if (Files.isDirectory(path) && !searchInFiles) {
-        if (!request.searchFolder()) {
-          return false;
-        }
-      } else if (!request.searchFiles()) {
-        return false;
-      }
-      fileMatcher.reset(path.getFileName().toString());
-      if (!fileMatcher.find()) {
-        return false;
-      }
-      if (searchInFiles && Files.isRegularFile(path) && isTextFile(path)) {
-        boolean containsText = fileContainsText(path, request.searchText(), request.caseSensitive());
-        return request.revertSearch() != containsText;
-      }
-      return true;
-    } catch (Exception e) {
-      return false;
-    }
-  }
-
-  private boolean fileContainsText(Path path, String searchText, boolean caseSensitive) {
-    try {
-      // ignore check text content if file > 10mb
-      if (Files.size(path) > 10L * 1024 * 1024) {
-        return false;
-      }
-      try (BufferedReader reader = Files.newBufferedReader(path)) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-          if (!caseSensitive) {
-            line = line.toLowerCase();
-            searchText = searchText.toLowerCase();
-          }
-          if (line.contains(searchText)) {
-            return true;
-          }
-        }
-      }
-    } catch (IOException ignored) {
-    }
-    return false;
-  }
-
-  private boolean isTextFile(Path path) {
-    try {
-      String mimeType = TIKA.detect(path);
-      return mimeType.startsWith("text/");
-    } catch (IOException e) {
-      return false;
-    }
-  }
 }
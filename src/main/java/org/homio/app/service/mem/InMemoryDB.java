@@ -11,6 +11,7 @@ import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Accumulators;
 import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Projections;
 import de.bwaldvogel.mongo.MongoServer;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
@@ -31,7 +32,6 @@ import org.jetbrains.annotations.Nullable;
 import java.net.InetSocketAddress;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -53,35 +53,16 @@ import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 public final class InMemoryDB {
 
   private static final String DATABASE = "db";
-  private static final Map<String, InMemoryDBDataService<?>> map = new ConcurrentHashMap<>();
+  private static final Map<String, DataStorageService<?>> map = new ConcurrentHashMap<>();
 
-  private static final MongoServer server;
+  /**
+   * Keep series in-process by NativeDataStorageService. If false - use embedded MongoServer.
+   * Switching affects only services created after change
+   */
+  private static volatile boolean nativeStorage = true;
 
-  private static final MongoClient client;
-
-  private static final MongoDatabase datastore;
-
-  static {
-    server = new MongoServer(new MemoryBackend());
-
-    // bind on a random local port
-    InetSocketAddress serverAddress = server.bind();
-
-    CodecRegistry pojoProvidersRegistry = fromProviders(PojoCodecProvider.builder().automatic(true).build());
-    CodecRegistry pojoCodecRegistry = fromCodecs(new ObjectCodec());
-    CodecRegistry codecRegistry =
-      fromRegistries(MongoClientSettings.getDefaultCodecRegistry(), pojoProvidersRegistry, pojoCodecRegistry);
-
-    client = MongoClients.create(MongoClientSettings.builder().codecRegistry(codecRegistry).applyToClusterSettings(
-      builder -> builder.hosts(Collections.singletonList(new ServerAddress(serverAddress)))).build());
-    datastore = client.getDatabase(DATABASE);
-
-    Runtime.getRuntime().addShutdownHook(new Thread() {
-      @Override
-      public void run() {
-        server.shutdown();
-      }
-    });
+  public static void setNativeStorage(boolean nativeStorage) {
+    InMemoryDB.nativeStorage = nativeStorage;
   }
 
   public static <T extends DataStorageEntity> DataStorageService<T> getOrCreateService(
@@ -89,14 +70,16 @@ public final class InMemoryDB {
     @NotNull String uniqueId,
     @Nullable Long quota) {
     return (DataStorageService<T>) map.computeIfAbsent(uniqueId, aClass -> {
-      String collectionName = pojoClass.getSimpleName() + "_" + uniqueId;
-      // create timestamp index
-      MongoCollection<T> collection = datastore.getCollection(collectionName, pojoClass);
-      //          collection.createIndex(Indexes.ascending(ID));
-      //          collection.createIndex(Indexes.ascending("topic"));
-
-      // delta is 10% of quota but not more than 1000
-      InMemoryDBDataService<T> data = new InMemoryDBDataService<>(pojoClass, collectionName, collection);
+      DataStorageService<T> data;
+      if (nativeStorage) {
+        data = new NativeDataStorageService<>(pojoClass);
+      } else {
+        String collectionName = pojoClass.getSimpleName() + "_" + uniqueId;
+        MongoCollection<T> collection = MongoHolder.datastore.getCollection(collectionName, pojoClass);
+        // create timestamp index
+        collection.createIndex(Indexes.ascending(DataStorageService.CREATED));
+        data = new InMemoryDBDataService<>(pojoClass, collectionName, collection);
+      }
       data.updateQuota(quota);
       return data;
     });
@@ -129,6 +112,41 @@ public final class InMemoryDB {
     return vStr.isEmpty() ? 0 : 1;
   }
 
+  /**
+   * MongoServer starts only on first access, so it's not bound at all when native storage is used
+   */
+  private static final class MongoHolder {
+
+    private static final MongoServer server;
+
+    private static final MongoClient client;
+
+    private static final MongoDatabase datastore;
+
+    static {
+      server = new MongoServer(new MemoryBackend());
+
+      // bind on a random local port
+      InetSocketAddress serverAddress = server.bind();
+
+      CodecRegistry pojoProvidersRegistry = fromProviders(PojoCodecProvider.builder().automatic(true).build());
+      CodecRegistry pojoCodecRegistry = fromCodecs(new ObjectCodec());
+      CodecRegistry codecRegistry =
+        fromRegistries(MongoClientSettings.getDefaultCodecRegistry(), pojoProvidersRegistry, pojoCodecRegistry);
+
+      client = MongoClients.create(MongoClientSettings.builder().codecRegistry(codecRegistry).applyToClusterSettings(
+        builder -> builder.hosts(Collections.singletonList(new ServerAddress(serverAddress)))).build());
+      datastore = client.getDatabase(DATABASE);
+
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+        @Override
+        public void run() {
+          server.shutdown();
+        }
+      });
+    }
+  }
+
   @RequiredArgsConstructor
   private static class InMemoryDBDataService<T extends DataStorageEntity> implements DataStorageService<T> {
 
@@ -337,16 +355,16 @@ public final class InMemoryDB {
             estimateUsed.set(count()); // calc precise amount of saved documents
 
             if (estimateUsed.get() > quota) {
-              List<Long> itemsToRemove;
-              try (MongoCursor<Document> cursor = collection.aggregate(Arrays.asList(
-                Aggregates.sort(ascending(CREATED)),
-                Aggregates.limit(delta),
-                Aggregates.project(Projections.include("_id")),
-                Aggregates.group("ids", Accumulators.addToSet("ids", "$_id"))
-              ), Document.class).cursor()) {
-                itemsToRemove = (List<Long>) cursor.next().get("ids", List.class);
+              // find 'created' of the delta-th oldest document and drop everything up to it by index
+              Document border = collection.find(new Document(), Document.class)
+                .sort(ascending(CREATED))
+                .skip(Math.max(delta, 1) - 1)
+                .limit(1)
+                .projection(Projections.include(CREATED))
+                .first();
+              if (border != null) {
+                updateUsed(-collection.deleteMany(Filters.lte(CREATED, border.get(CREATED))).getDeletedCount());
               }
-              updateUsed(-collection.deleteMany(Filters.in("_id", itemsToRemove)).getDeletedCount());
             }
           }
         }
@@ -0,0 +1,863 @@
+package org.homio.app.service.mem;
+
+import com.mongodb.MongoClientSettings;
+import lombok.SneakyThrows;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.homio.api.entity.widget.AggregationType;
+import org.homio.api.storage.DataStorageEntity;
+import org.homio.api.storage.DataStorageService;
+import org.homio.api.storage.SortBy;
+import org.homio.api.storage.SourceHistoryItem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * In-process storage that keeps every series in primitive columns instead of sending BSON documents to the loopback MongoServer.
+ * Rows live in a ring buffer ordered by 'created'. Numeric and boolean values are stored in a double[] column, everything else
+ * (strings, json, etc...) goes to an object column that is allocated only when first needed.
+ */
+final class NativeDataStorageService<T extends DataStorageEntity> implements DataStorageService<T> {
+
+  private static final String VALUE = "value";
+  private static final int INITIAL_CAPACITY = 16;
+  // windows with fewer rows are calculated exactly by scanning raw rows
+  private static final int EXACT_SCAN_LIMIT = 1024;
+  // longs above this value can't be represented by double without precision loss
+  private static final long MAX_EXACT_LONG = 1L << 53;
+
+  private static final byte KIND_DOUBLE = 0;
+  private static final byte KIND_LONG = 1;
+  private static final byte KIND_INT = 2;
+  private static final byte KIND_BOOL = 3;
+  private static final byte KIND_OBJECT = 4;
+
+  private final Class<T> pojoClass;
+  // constructor(Object value) used to materialize entities from columns. If absent or entity has fields other than
+  // value/created - entities are kept in the object column
+  private final @Nullable Constructor<T> valueConstructor;
+  private final Map<String, Consumer<T>> saveListeners = new HashMap<>();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final SeriesRollup rollup = new SeriesRollup();
+  // bit (1 << KIND_*) per numeric kind of rows added to rollup. Bits of evicted rows may stay until rollup is rebuilt
+  private int rollupKinds;
+
+  private long[] created;
+  private double[] values;
+  private byte[] kinds;
+  private @Nullable Object[] objects;
+  // physical index of the oldest row
+  private int head;
+  private int size;
+
+  private @Nullable Long quota;
+  // delta is 10% of quota but not more than 1000
+  private int delta;
+  private volatile T last;
+
+  NativeDataStorageService(@NotNull Class<T> pojoClass) {
+    this.pojoClass = pojoClass;
+    this.valueConstructor = findValueConstructor(pojoClass);
+    reset();
+  }
+
+  @Override
+  public List<SourceHistoryItem> getSourceHistoryItems(@Nullable String field, @Nullable String value, int from, int count) {
+    IntPredicate filter = buildFieldFilter(field, value);
+    List<SourceHistoryItem> items = new ArrayList<>(Math.max(0, Math.min(count, size)));
+    lock.readLock().lock();
+    try {
+      // without filter 'from' is just an offset from the tail
+      boolean noFilter = field == null || value == null;
+      int skip = noFilter ? 0 : from;
+      for (int i = size - 1 - (noFilter ? from : 0); i >= 0 && items.size() < count; i--) {
+        int p = physical(i);
+        if (filter.test(p)) {
+          if (skip > 0) {
+            skip--;
+          } else {
+            items.add(new SourceHistoryItem(created[p], valueAt(p)));
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return items;
+  }
+
+  @Override
+  public void save(@NotNull List<T> entities) {
+    last = null;
+    lock.writeLock().lock();
+    try {
+      for (T entity : entities) {
+        insert(entity);
+      }
+      postInsertQuotaHandler();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public T save(@NotNull T entity) {
+    lock.writeLock().lock();
+    try {
+      insert(entity);
+      postInsertQuotaHandler();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    last = entity;
+    for (Consumer<T> listener : saveListeners.values()) {
+      listener.accept(entity);
+    }
+    return entity;
+  }
+
+  @Override
+  public long count(Long from, Long to) {
+    lock.readLock().lock();
+    try {
+      if (from == null && to == null) {
+        return size;
+      }
+      return Math.max(0, toIndex(to) - fromIndex(from));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long deleteBy(@NotNull String field, @NotNull Object value) {
+    last = null;
+    lock.writeLock().lock();
+    try {
+      return removeIf(p -> Objects.equals(value, fieldValue(p, field)));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public long deleteAll() {
+    last = null;
+    lock.writeLock().lock();
+    try {
+      int removed = size;
+      reset();
+      return removed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public T findLatestBy(@NotNull String field, @NotNull String value) {
+    IntPredicate filter = buildFieldFilter(field, value);
+    lock.readLock().lock();
+    try {
+      for (int i = size - 1; i >= 0; i--) {
+        int p = physical(i);
+        if (filter.test(p)) {
+          return entityAt(p);
+        }
+      }
+      return null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public T getLatest() {
+    T latest = last;
+    if (latest == null) {
+      lock.readLock().lock();
+      try {
+        if (size > 0) {
+          latest = entityAt(physical(size - 1));
+          last = latest;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    return latest;
+  }
+
+  @Override
+  public @Nullable Long getQuota() {
+    return quota;
+  }
+
+  @Override
+  public void updateQuota(@Nullable Long quota) {
+    if (quota == null || quota == 0) {
+      this.quota = null;
+    } else {
+      if (!Objects.equals(quota, this.quota)) {
+        this.quota = quota;
+        // delta is 10% of quota but not more than 1000
+        int delta = (int) (quota * 10 / 100);
+        this.delta = Math.min(delta, 1000);
+      }
+    }
+  }
+
+  @Override
+  public long getUsed() {
+    return size;
+  }
+
+  @Override
+  public @NotNull List<Object[]> getTimeSeries(@Nullable Long from, @Nullable Long to, @Nullable String field,
+                                               @Nullable String value, @NotNull String aggregateField, @Nullable Integer limit, boolean sortAsc) {
+    IntPredicate filter = buildFieldFilter(field, value);
+    lock.readLock().lock();
+    try {
+      int start = fromIndex(from);
+      int end = toIndex(to);
+      int max = limit == null ? Integer.MAX_VALUE : limit;
+      List<Object[]> series = new ArrayList<>(Math.max(0, Math.min(end - start, max)));
+      for (int n = 0; n < end - start && series.size() < max; n++) {
+        int p = physical(sortAsc ? start + n : end - 1 - n);
+        if (filter.test(p)) {
+          series.add(new Object[]{created[p], chartValueAt(p, aggregateField)});
+        }
+      }
+      return series;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public @NotNull List<T> queryListWithSort(Bson filter, SortBy sort, Integer limit) {
+    BsonDocument document = filter == null ? new BsonDocument() :
+      filter.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+    IntPredicate predicate = buildDocumentFilter(document);
+    lock.readLock().lock();
+    try {
+      int[] range = {0, size};
+      narrowCreatedRange(document, range);
+      List<Integer> rows = new ArrayList<>();
+      for (int i = range[0]; i < range[1]; i++) {
+        int p = physical(i);
+        if (predicate.test(p)) {
+          rows.add(p);
+        }
+      }
+      if (sort != null) {
+        if (CREATED.equals(sort.getOrderField())) {
+          if (!sort.isAsc()) {
+            Collections.reverse(rows);
+          }
+        } else {
+          Comparator<Integer> comparator = (p1, p2) ->
+            compareValues(fieldValue(p1, sort.getOrderField()), fieldValue(p2, sort.getOrderField()));
+          rows.sort(sort.isAsc() ? comparator : comparator.reversed());
+        }
+      }
+      int count = limit == null ? rows.size() : Math.min(limit, rows.size());
+      List<T> result = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        result.add(entityAt(rows.get(i)));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public @NotNull Object aggregate(@Nullable Long from, @Nullable Long to, @Nullable String field, @Nullable String value,
+                                   @NotNull AggregationType aggregationType, boolean filterOnlyNumbers,
+                                   @NotNull String aggregateField) {
+    IntPredicate filter = buildFieldFilter(field, value);
+    lock.readLock().lock();
+    try {
+      int start = fromIndex(from);
+      int end = toIndex(to);
+      switch (aggregationType) {
+        case First:
+          return firstValue(start, end, filter, aggregateField, false);
+        case Last:
+          return firstValue(start, end, filter, aggregateField, true);
+        case Min:
+        case Max:
+          // extreme is one of stored values, so it has to be returned as stored type, same as exact scan does. Type of
+          // rollup's extreme is known only if all rows have same numeric kind
+          if (isRollupApplicable(field, value, aggregationType, aggregateField, end - start)
+              && Integer.bitCount(rollupKinds) == 1) {
+            return toStoredKind(aggregateByRollup(start, end, aggregationType), Integer.numberOfTrailingZeros(rollupKinds));
+          }
+          return extremeValue(start, end, filter, aggregateField, aggregationType == AggregationType.Max);
+        case Count:
+          if (field == null || value == null) {
+            return (long) Math.max(0, end - start);
+          }
+          long matched = 0;
+          for (int i = start; i < end; i++) {
+            if (filter.test(physical(i))) {
+              matched++;
+            }
+          }
+          return matched;
+      }
+
+      if (isRollupApplicable(field, value, aggregationType, aggregateField, end - start)) {
+        return aggregateByRollup(start, end, aggregationType);
+      }
+
+      // Average, Sum and Median are calculated only over numeric values
+      double[] numbers = new double[Math.max(0, end - start)];
+      int count = 0;
+      for (int i = start; i < end; i++) {
+        int p = physical(i);
+        if (filter.test(p) && isNumber(p, aggregateField)) {
+          numbers[count++] = numberAt(p, aggregateField);
+        }
+      }
+      if (count == 0) {
+        return 0;
+      }
+      switch (aggregationType) {
+        case Average, AverageNoZero -> {
+          return sum(numbers, count) / count;
+        }
+        case Sum -> {
+          return sum(numbers, count);
+        }
+        case Median -> {
+          Arrays.sort(numbers, 0, count);
+          return count % 2 == 0 ? (numbers[count / 2 - 1] + numbers[count / 2]) / 2 : numbers[count / 2];
+        }
+      }
+      return numbers[0];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public @NotNull NativeDataStorageService<T> addSaveListener(@NotNull String discriminator, @NotNull Consumer<T> listener) {
+    this.saveListeners.put(discriminator, listener);
+    return this;
+  }
+
+  /**
+   * Rollups are kept only for 'value' of fully numeric series, everything else falls back to exact scan
+   */
+  private boolean isRollupApplicable(@Nullable String field, @Nullable String value, AggregationType aggregationType,
+                                     String aggregateField, int rows) {
+    if (!rollup.isEnabled() || (field != null && value != null) || !VALUE.equals(aggregateField) || rows <= EXACT_SCAN_LIMIT) {
+      return false;
+    }
+    return switch (aggregationType) {
+      case Min, Max, Average, AverageNoZero, Sum, Median -> true;
+      default -> false;
+    };
+  }
+
+  private @NotNull Object aggregateByRollup(int start, int end, AggregationType aggregationType) {
+    long from = created[physical(start)];
+    long to = created[physical(end - 1)] + 1;
+    SeriesRollup.Accumulator accumulator = rollup.aggregate(from, to, aggregationType == AggregationType.Median,
+      (rawFrom, rawTo, acc) -> {
+        for (int i = lowerBound(rawFrom), rawEnd = lowerBound(rawTo); i < rawEnd; i++) {
+          acc.add(values[physical(i)]);
+        }
+      });
+    if (accumulator.getCount() == 0) {
+      return 0;
+    }
+    return switch (aggregationType) {
+      case Min -> accumulator.getMin();
+      case Max -> accumulator.getMax();
+      case Sum -> accumulator.getSum();
+      case Median -> accumulator.getMedian();
+      default -> accumulator.getSum() / accumulator.getCount();
+    };
+  }
+
+  private static @NotNull Object toStoredKind(@NotNull Object value, int kind) {
+    if (value instanceof Double number) {
+      return switch (kind) {
+        case KIND_LONG -> number.longValue();
+        case KIND_INT -> number.intValue();
+        default -> number;
+      };
+    }
+    return value;
+  }
+
+  private static double sum(double[] numbers, int count) {
+    double sum = 0;
+    for (int i = 0; i < count; i++) {
+      sum += numbers[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Column layout keeps only value and created, so it's used only if entity has no other state which would be lost
+   */
+  private static <T> @Nullable Constructor<T> findValueConstructor(Class<T> pojoClass) {
+    for (Field field : FieldUtils.getAllFieldsList(pojoClass)) {
+      int modifiers = field.getModifiers();
+      if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()
+          && !VALUE.equals(field.getName()) && !"created".equals(field.getName())) {
+        return null;
+      }
+    }
+    try {
+      return pojoClass.getConstructor(Object.class);
+    } catch (NoSuchMethodException ignored) {
+      return null;
+    }
+  }
+
+  private static int compareValues(@Nullable Object o1, @Nullable Object o2) {
+    if (o1 instanceof Number n1 && o2 instanceof Number n2) {
+      return Double.compare(n1.doubleValue(), n2.doubleValue());
+    }
+    if (o1 == null || o2 == null) {
+      return o1 == null ? (o2 == null ? 0 : -1) : 1;
+    }
+    // numbers are always 'less' than any other types, same as mongo does
+    if (o1 instanceof Number || o2 instanceof Number) {
+      return o1 instanceof Number ? -1 : 1;
+    }
+    return o1.toString().compareTo(o2.toString());
+  }
+
+  private static @Nullable Object toJavaValue(@NotNull BsonValue value) {
+    if (value.isNumber()) {
+      return value.asNumber().doubleValue();
+    }
+    if (value.isString()) {
+      return value.asString().getValue();
+    }
+    if (value.isBoolean()) {
+      return value.asBoolean().getValue();
+    }
+    if (value.isDateTime()) {
+      return value.asDateTime().getValue();
+    }
+    if (value.isNull()) {
+      return null;
+    }
+    throw new IllegalArgumentException("Unsupported filter value type: " + value.getBsonType());
+  }
+
+  private static boolean equalValues(@Nullable Object rowValue, @Nullable Object filterValue) {
+    if (rowValue instanceof Number n1 && filterValue instanceof Number n2) {
+      return n1.doubleValue() == n2.doubleValue();
+    }
+    return Objects.equals(rowValue, filterValue);
+  }
+
+  private void insert(T entity) {
+    if (size == created.length) {
+      grow();
+    }
+    long time = entity.getCreated();
+    // rows almost always arrive in time order, so binary search is needed only for late ones
+    int pos = size == 0 || created[physical(size - 1)] <= time ? size : upperBound(time);
+    for (int i = size; i > pos; i--) {
+      copyRow(physical(i - 1), physical(i));
+    }
+    int p = physical(pos);
+    writeRow(p, entity);
+    size++;
+    if (kinds[p] <= KIND_INT) {
+      rollupKinds |= 1 << kinds[p];
+      if (!rollup.add(time, values[p])) {
+        rebuildRollup();
+      }
+    } else if (rollup.isEnabled()) {
+      rollup.disable();
+    }
+  }
+
+  private void postInsertQuotaHandler() {
+    if (quota != null && size > quota) {
+      // drop oldest rows by moving head pointer
+      int remove = (int) Math.min(size, Math.max(delta, size - quota));
+      if (objects != null) {
+        for (int i = 0; i < remove; i++) {
+          objects[physical(i)] = null;
+        }
+      }
+      head = physical(remove);
+      size -= remove;
+      if (size == 0) {
+        rollup.reset();
+        rollupKinds = 0;
+      } else {
+        rollup.evict(created[head]);
+      }
+    }
+  }
+
+  private int removeIf(IntPredicate predicate) {
+    int write = 0;
+    for (int read = 0; read < size; read++) {
+      int p = physical(read);
+      if (!predicate.test(p)) {
+        if (write != read) {
+          copyRow(p, physical(write));
+        }
+        write++;
+      }
+    }
+    if (objects != null) {
+      for (int i = write; i < size; i++) {
+        objects[physical(i)] = null;
+      }
+    }
+    int removed = size - write;
+    size = write;
+    if (removed > 0) {
+      rebuildRollup();
+    }
+    return removed;
+  }
+
+  private void rebuildRollup() {
+    rollup.reset();
+    rollupKinds = 0;
+    for (int i = 0; i < size; i++) {
+      int p = physical(i);
+      if (kinds[p] > KIND_INT) {
+        rollup.disable();
+        return;
+      }
+      rollupKinds |= 1 << kinds[p];
+      rollup.add(created[p], values[p]);
+    }
+  }
+
+  private void reset() {
+    created = new long[INITIAL_CAPACITY];
+    values = new double[INITIAL_CAPACITY];
+    kinds = new byte[INITIAL_CAPACITY];
+    objects = valueConstructor == null ? new Object[INITIAL_CAPACITY] : null;
+    rollup.reset();
+    rollupKinds = 0;
+    head = 0;
+    size = 0;
+  }
+
+  private void grow() {
+    int capacity = created.length * 2;
+    if (quota != null) {
+      // no need to allocate more than quota + delta rows
+      capacity = (int) Math.max(created.length + 1, Math.min(capacity, quota + delta + 1));
+    }
+    long[] newCreated = new long[capacity];
+    double[] newValues = new double[capacity];
+    byte[] newKinds = new byte[capacity];
+    Object[] newObjects = objects == null ? null : new Object[capacity];
+    // unwrap ring into [0..size)
+    int firstPart = Math.min(size, created.length - head);
+    System.arraycopy(created, head, newCreated, 0, firstPart);
+    System.arraycopy(created, 0, newCreated, firstPart, size - firstPart);
+    System.arraycopy(values, head, newValues, 0, firstPart);
+    System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+    System.arraycopy(kinds, head, newKinds, 0, firstPart);
+    System.arraycopy(kinds, 0, newKinds, firstPart, size - firstPart);
+    if (objects != null) {
+      System.arraycopy(objects, head, newObjects, 0, firstPart);
+      System.arraycopy(objects, 0, newObjects, firstPart, size - firstPart);
+    }
+    created = newCreated;
+    values = newValues;
+    kinds = newKinds;
+    objects = newObjects;
+    head = 0;
+  }
+
+  private int physical(int index) {
+    int p = head + index;
+    return p >= created.length ? p - created.length : p;
+  }
+
+  /**
+   * @return logical index of first row with created >= from
+   */
+  private int fromIndex(@Nullable Long from) {
+    return from == null ? 0 : lowerBound(from);
+  }
+
+  /**
+   * @return logical index after the last row with created <= to
+   */
+  private int toIndex(@Nullable Long to) {
+    return to == null ? size : upperBound(to);
+  }
+
+  /**
+   * Binary search over ring buffer. Rows are always kept sorted by 'created'
+   *
+   * @return first logical index with created >= time
+   */
+  private int lowerBound(long time) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (created[physical(mid)] < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return first logical index with created > time
+   */
+  private int upperBound(long time) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (created[physical(mid)] <= time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void writeRow(int p, T entity) {
+    created[p] = entity.getCreated();
+    Object value = entity.getValue();
+    byte kind = KIND_OBJECT;
+    double number = 0;
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      kind = KIND_INT;
+      number = ((Number) value).intValue();
+    } else if (value instanceof Long longValue) {
+      if (Math.abs(longValue) <= MAX_EXACT_LONG) {
+        kind = KIND_LONG;
+        number = longValue;
+      }
+    } else if (value instanceof Number numberValue) {
+      kind = KIND_DOUBLE;
+      number = numberValue.doubleValue();
+    } else if (value instanceof Boolean boolValue) {
+      kind = KIND_BOOL;
+      number = boolValue ? 1 : 0;
+    }
+    kinds[p] = kind;
+    values[p] = number;
+    if (valueConstructor == null) {
+      objects[p] = entity;
+    } else if (kind == KIND_OBJECT) {
+      objects()[p] = value;
+    } else if (objects != null) {
+      objects[p] = null;
+    }
+  }
+
+  private void copyRow(int from, int to) {
+    created[to] = created[from];
+    values[to] = values[from];
+    kinds[to] = kinds[from];
+    if (objects != null) {
+      objects[to] = objects[from];
+    }
+  }
+
+  private Object[] objects() {
+    if (objects == null) {
+      objects = new Object[created.length];
+    }
+    return objects;
+  }
+
+  private @Nullable Object valueAt(int p) {
+    return switch (kinds[p]) {
+      case KIND_DOUBLE -> values[p];
+      case KIND_LONG -> (long) values[p];
+      case KIND_INT -> (int) values[p];
+      case KIND_BOOL -> values[p] != 0;
+      default -> valueConstructor == null ? ((DataStorageEntity) objects[p]).getValue() : objects[p];
+    };
+  }
+
+  private boolean isNumber(int p, String field) {
+    if (VALUE.equals(field)) {
+      return kinds[p] <= KIND_INT;
+    }
+    return fieldValue(p, field) instanceof Number;
+  }
+
+  private double numberAt(int p, String field) {
+    return VALUE.equals(field) ? values[p] : ((Number) fieldValue(p, field)).doubleValue();
+  }
+
+  private float chartValueAt(int p, String field) {
+    if (VALUE.equals(field) && kinds[p] != KIND_OBJECT) {
+      return (float) values[p];
+    }
+    return InMemoryDB.toNumber(fieldValue(p, field)).floatValue();
+  }
+
+  private @Nullable Object fieldValue(int p, @NotNull String field) {
+    if (CREATED.equals(field)) {
+      return created[p];
+    }
+    if (VALUE.equals(field)) {
+      return valueAt(p);
+    }
+    try {
+      return FieldUtils.readField(entityAt(p), field, true);
+    } catch (Exception ignored) {
+      return null;
+    }
+  }
+
+  @SneakyThrows
+  private T entityAt(int p) {
+    if (valueConstructor == null) {
+      return pojoClass.cast(objects[p]);
+    }
+    T entity = valueConstructor.newInstance(valueAt(p));
+    entity.setCreated(created[p]);
+    return entity;
+  }
+
+  private @Nullable Object firstValue(int start, int end, IntPredicate filter, String field, boolean fromTail) {
+    for (int n = 0; n < end - start; n++) {
+      int p = physical(fromTail ? end - 1 - n : start + n);
+      if (filter.test(p)) {
+        return fieldValue(p, field);
+      }
+    }
+    return 0;
+  }
+
+  private @Nullable Object extremeValue(int start, int end, IntPredicate filter, String field, boolean max) {
+    Object result = null;
+    boolean found = false;
+    for (int i = start; i < end; i++) {
+      int p = physical(i);
+      if (filter.test(p)) {
+        Object value = fieldValue(p, field);
+        int compare = compareValues(value, result);
+        if (!found || (max ? compare > 0 : compare < 0)) {
+          result = value;
+          found = true;
+        }
+      }
+    }
+    return found ? result : 0;
+  }
+
+  private IntPredicate buildFieldFilter(@Nullable String field, @Nullable String value) {
+    if (field == null || value == null) {
+      return p -> true;
+    }
+    return p -> value.equals(fieldValue(p, field));
+  }
+
+  /**
+   * Narrow [start, end) by top level 'created' conditions, so i.e. findAllSince() touches only tail rows instead of all
+   */
+  private void narrowCreatedRange(BsonDocument document, int[] range) {
+    for (Entry<String, BsonValue> entry : document.entrySet()) {
+      if ("$and".equals(entry.getKey())) {
+        for (BsonValue condition : entry.getValue().asArray()) {
+          narrowCreatedRange(condition.asDocument(), range);
+        }
+      } else if (CREATED.equals(entry.getKey()) && entry.getValue().isDocument()) {
+        for (Entry<String, BsonValue> op : entry.getValue().asDocument().entrySet()) {
+          if (!op.getValue().isNumber()) {
+            continue;
+          }
+          long time = op.getValue().asNumber().longValue();
+          switch (op.getKey()) {
+            case "$gt" -> range[0] = Math.max(range[0], upperBound(time));
+            case "$gte" -> range[0] = Math.max(range[0], lowerBound(time));
+            case "$lt" -> range[1] = Math.min(range[1], lowerBound(time));
+            case "$lte" -> range[1] = Math.min(range[1], upperBound(time));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluate subset of mongo query language that DataStorageService default methods rely on: $and, $or and comparison operators
+   */
+  private IntPredicate buildDocumentFilter(BsonDocument document) {
+    IntPredicate predicate = p -> true;
+    for (Entry<String, BsonValue> entry : document.entrySet()) {
+      String key = entry.getKey();
+      BsonValue value = entry.getValue();
+      IntPredicate condition;
+      if ("$and".equals(key) || "$or".equals(key)) {
+        List<IntPredicate> conditions = value.asArray().stream().map(v -> buildDocumentFilter(v.asDocument())).toList();
+        condition = "$and".equals(key)
+          ? p -> conditions.stream().allMatch(c -> c.test(p))
+          : p -> conditions.stream().anyMatch(c -> c.test(p));
+      } else if (value.isDocument() && value.asDocument().keySet().stream().allMatch(k -> k.startsWith("$"))) {
+        condition = p -> true;
+        for (Entry<String, BsonValue> op : value.asDocument().entrySet()) {
+          condition = condition.and(buildOperatorFilter(key, op.getKey(), op.getValue()));
+        }
+      } else {
+        Object expected = toJavaValue(value);
+        condition = p -> equalValues(fieldValue(p, key), expected);
+      }
+      predicate = predicate.and(condition);
+    }
+    return predicate;
+  }
+
+  private IntPredicate buildOperatorFilter(String field, String operator, BsonValue operand) {
+    if ("$in".equals(operator) || "$nin".equals(operator)) {
+      List<Object> expected = operand.asArray().stream().map(NativeDataStorageService::toJavaValue).toList();
+      IntPredicate in = p -> {
+        Object rowValue = fieldValue(p, field);
+        return expected.stream().anyMatch(e -> equalValues(rowValue, e));
+      };
+      return "$in".equals(operator) ? in : in.negate();
+    }
+    Object expected = toJavaValue(operand);
+    return switch (operator) {
+      case "$eq" -> p -> equalValues(fieldValue(p, field), expected);
+      case "$ne" -> p -> !equalValues(fieldValue(p, field), expected);
+      case "$gt" -> p -> compareValues(fieldValue(p, field), expected) > 0;
+      case "$gte" -> p -> compareValues(fieldValue(p, field), expected) >= 0;
+      case "$lt" -> p -> compareValues(fieldValue(p, field), expected) < 0;
+      case "$lte" -> p -> compareValues(fieldValue(p, field), expected) <= 0;
+      default -> throw new IllegalArgumentException("Unsupported filter operator: " + operator);
+    };
+  }
+}
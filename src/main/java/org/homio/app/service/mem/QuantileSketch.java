@@ -0,0 +1,116 @@
+package org.homio.app.service.mem;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative accuracy (DDSketch like). Values are placed into logarithmic bins, bins are kept as sorted
+ * sparse arrays, so sketches of adjacent time buckets may be merged without access to raw values.
+ */
+final class QuantileSketch {
+
+  private static final double RELATIVE_ACCURACY = 0.01;
+  private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+  // values closer to zero than this are counted as zero
+  private static final double MIN_INDEXABLE = 1e-9;
+  // shift bin index, so keys of negative values < zero key < keys of positive values
+  private static final int KEY_OFFSET = 100_000;
+
+  private int[] keys = new int[4];
+  private long[] counts = new long[4];
+  private int size;
+  private long total;
+
+  public void add(double value) {
+    add(toKey(value), 1);
+  }
+
+  public void merge(QuantileSketch other) {
+    if (other.size == 0) {
+      return;
+    }
+    int[] mergedKeys = new int[size + other.size];
+    long[] mergedCounts = new long[size + other.size];
+    int i = 0, j = 0, n = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+        mergedKeys[n] = keys[i];
+        mergedCounts[n++] = counts[i++];
+      } else if (i == size || other.keys[j] < keys[i]) {
+        mergedKeys[n] = other.keys[j];
+        mergedCounts[n++] = other.counts[j++];
+      } else {
+        mergedKeys[n] = keys[i];
+        mergedCounts[n++] = counts[i++] + other.counts[j++];
+      }
+    }
+    keys = mergedKeys;
+    counts = mergedCounts;
+    size = n;
+    total += other.total;
+  }
+
+  public long getCount() {
+    return total;
+  }
+
+  /**
+   * Median with same semantic as exact calculation: average of two middle values for even count
+   */
+  public double median() {
+    if (total == 0) {
+      return 0;
+    }
+    if (total % 2 == 0) {
+      return (valueAtRank(total / 2 - 1) + valueAtRank(total / 2)) / 2;
+    }
+    return valueAtRank(total / 2);
+  }
+
+  private double valueAtRank(long rank) {
+    long seen = 0;
+    for (int i = 0; i < size; i++) {
+      seen += counts[i];
+      if (seen > rank) {
+        return toValue(keys[i]);
+      }
+    }
+    return toValue(keys[size - 1]);
+  }
+
+  private void add(int key, long count) {
+    int pos = Arrays.binarySearch(keys, 0, size, key);
+    if (pos >= 0) {
+      counts[pos] += count;
+    } else {
+      pos = -pos - 1;
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+      }
+      System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+      System.arraycopy(counts, pos, counts, pos + 1, size - pos);
+      keys[pos] = key;
+      counts[pos] = count;
+      size++;
+    }
+    total += count;
+  }
+
+  private static int toKey(double value) {
+    double abs = Math.abs(value);
+    if (abs < MIN_INDEXABLE) {
+      return 0;
+    }
+    int index = (int) Math.ceil(Math.log(abs) / LOG_GAMMA) + KEY_OFFSET;
+    return value > 0 ? index : -index;
+  }
+
+  private static double toValue(int key) {
+    if (key == 0) {
+      return 0;
+    }
+    double value = 2 * Math.pow(GAMMA, Math.abs(key) - KEY_OFFSET) / (GAMMA + 1);
+    return key > 0 ? value : -value;
+  }
+}
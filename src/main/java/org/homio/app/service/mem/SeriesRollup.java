@@ -0,0 +1,300 @@
+package org.homio.app.service.mem;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming rollups of numeric series: count, sum, min and max per 1d/1h/1m bucket, plus quantile sketch for 1d/1h buckets.
+ * Window aggregate is combined from the coarsest buckets that fit entirely into window, edges are filled from finer levels and
+ * finally from raw rows.
+ */
+final class SeriesRollup {
+
+  private final Level[] levels = {
+    new Level(TimeUnit.DAYS.toMillis(1), true),
+    new Level(TimeUnit.HOURS.toMillis(1), true),
+    new Level(TimeUnit.MINUTES.toMillis(1), false)
+  };
+  private boolean enabled = true;
+  // buckets that start before this time may miss rows dropped by quota
+  private long validFrom = Long.MIN_VALUE;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return false if value doesn't fit into existed buckets and rollups has to be rebuilt
+   */
+  public boolean add(long time, double value) {
+    if (!enabled) {
+      return true;
+    }
+    for (Level level : levels) {
+      if (!level.add(time, value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Series contains non-numeric values, so only exact calculation is possible
+   */
+  public void disable() {
+    enabled = false;
+    clear();
+  }
+
+  public void reset() {
+    enabled = true;
+    clear();
+  }
+
+  /**
+   * Rows with created < oldestCreated were dropped from series
+   */
+  public void evict(long oldestCreated) {
+    validFrom = oldestCreated + 1;
+    for (Level level : levels) {
+      level.evict(oldestCreated);
+    }
+  }
+
+  /**
+   * @param from     - inclusive
+   * @param to       - exclusive
+   * @param median   - merge quantile sketches as well
+   * @param rawValues - scanner of raw rows for window edges that are not covered by buckets
+   */
+  public Accumulator aggregate(long from, long to, boolean median, RawScanner rawValues) {
+    Accumulator accumulator = new Accumulator(median);
+    combine(from, to, 0, accumulator, rawValues);
+    return accumulator;
+  }
+
+  private void combine(long from, long to, int levelIndex, Accumulator accumulator, RawScanner rawValues) {
+    if (from >= to) {
+      return;
+    }
+    if (levelIndex == levels.length) {
+      rawValues.scan(from, to, accumulator);
+      return;
+    }
+    Level level = levels[levelIndex];
+    if (accumulator.sketch != null && !level.withSketch) {
+      combine(from, to, levelIndex + 1, accumulator, rawValues);
+      return;
+    }
+    long start = Math.max(level.alignUp(from), level.alignUp(validFrom));
+    long end = level.alignDown(to);
+    if (start >= end) {
+      combine(from, to, levelIndex + 1, accumulator, rawValues);
+      return;
+    }
+    combine(from, start, levelIndex + 1, accumulator, rawValues);
+    level.mergeInto(start, end, accumulator);
+    combine(end, to, levelIndex + 1, accumulator, rawValues);
+  }
+
+  private void clear() {
+    validFrom = Long.MIN_VALUE;
+    for (Level level : levels) {
+      level.clear();
+    }
+  }
+
+  public interface RawScanner {
+
+    void scan(long from, long to, Accumulator accumulator);
+  }
+
+  public static final class Accumulator {
+
+    private final @Nullable QuantileSketch sketch;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    private Accumulator(boolean median) {
+      this.sketch = median ? new QuantileSketch() : null;
+    }
+
+    public void add(double value) {
+      count++;
+      sum += value;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+      if (sketch != null) {
+        sketch.add(value);
+      }
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getSum() {
+      return sum;
+    }
+
+    public double getMin() {
+      return min;
+    }
+
+    public double getMax() {
+      return max;
+    }
+
+    public double getMedian() {
+      return sketch == null ? 0 : sketch.median();
+    }
+  }
+
+  /**
+   * Time ordered buckets of single resolution
+   */
+  private static final class Level {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final long resolution;
+    private final boolean withSketch;
+
+    private long[] starts;
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxs;
+    private QuantileSketch[] sketches;
+    private int head;
+    private int size;
+
+    private Level(long resolution, boolean withSketch) {
+      this.resolution = resolution;
+      this.withSketch = withSketch;
+      clear();
+    }
+
+    private boolean add(long time, double value) {
+      long start = alignDown(time);
+      int index;
+      if (size > 0 && starts[head + size - 1] == start) {
+        index = head + size - 1;
+      } else if (size == 0 || starts[head + size - 1] < start) {
+        index = append(start);
+      } else {
+        index = Arrays.binarySearch(starts, head, head + size, start);
+        if (index < 0) {
+          // late value for bucket that doesn't exist
+          return false;
+        }
+      }
+      counts[index]++;
+      sums[index] += value;
+      mins[index] = Math.min(mins[index], value);
+      maxs[index] = Math.max(maxs[index], value);
+      if (withSketch) {
+        sketches[index].add(value);
+      }
+      return true;
+    }
+
+    private void evict(long oldestCreated) {
+      while (size > 0 && starts[head] + resolution <= oldestCreated) {
+        if (withSketch) {
+          sketches[head] = null;
+        }
+        head++;
+        size--;
+      }
+    }
+
+    private void mergeInto(long from, long to, Accumulator accumulator) {
+      int index = Arrays.binarySearch(starts, head, head + size, from);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      for (; index < head + size && starts[index] < to; index++) {
+        accumulator.count += counts[index];
+        accumulator.sum += sums[index];
+        accumulator.min = Math.min(accumulator.min, mins[index]);
+        accumulator.max = Math.max(accumulator.max, maxs[index]);
+        if (accumulator.sketch != null) {
+          accumulator.sketch.merge(sketches[index]);
+        }
+      }
+    }
+
+    private int append(long start) {
+      if (head + size == starts.length) {
+        if (head > starts.length / 2) {
+          compact();
+        } else {
+          grow();
+        }
+      }
+      int index = head + size;
+      starts[index] = start;
+      counts[index] = 0;
+      sums[index] = 0;
+      mins[index] = Double.POSITIVE_INFINITY;
+      maxs[index] = Double.NEGATIVE_INFINITY;
+      if (withSketch) {
+        sketches[index] = new QuantileSketch();
+      }
+      size++;
+      return index;
+    }
+
+    private void compact() {
+      System.arraycopy(starts, head, starts, 0, size);
+      System.arraycopy(counts, head, counts, 0, size);
+      System.arraycopy(sums, head, sums, 0, size);
+      System.arraycopy(mins, head, mins, 0, size);
+      System.arraycopy(maxs, head, maxs, 0, size);
+      if (withSketch) {
+        System.arraycopy(sketches, head, sketches, 0, size);
+        Arrays.fill(sketches, size, sketches.length, null);
+      }
+      head = 0;
+    }
+
+    private void grow() {
+      int capacity = starts.length * 2;
+      starts = Arrays.copyOf(starts, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+      sums = Arrays.copyOf(sums, capacity);
+      mins = Arrays.copyOf(mins, capacity);
+      maxs = Arrays.copyOf(maxs, capacity);
+      if (withSketch) {
+        sketches = Arrays.copyOf(sketches, capacity);
+      }
+    }
+
+    private void clear() {
+      starts = new long[INITIAL_CAPACITY];
+      counts = new long[INITIAL_CAPACITY];
+      sums = new double[INITIAL_CAPACITY];
+      mins = new double[INITIAL_CAPACITY];
+      maxs = new double[INITIAL_CAPACITY];
+      sketches = withSketch ? new QuantileSketch[INITIAL_CAPACITY] : null;
+      head = 0;
+      size = 0;
+    }
+
+    private long alignDown(long time) {
+      return Math.floorDiv(time, resolution) * resolution;
+    }
+
+    private long alignUp(long time) {
+      if (time == Long.MIN_VALUE) {
+        return Long.MIN_VALUE;
+      }
+      return -Math.floorDiv(-time, resolution) * resolution;
+    }
+  }
+}
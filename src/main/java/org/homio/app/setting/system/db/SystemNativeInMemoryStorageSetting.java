@@ -0,0 +1,32 @@
+package org.homio.app.setting.system.db;
+
+import org.homio.api.setting.SettingPluginBoolean;
+import org.homio.app.setting.CoreSettingPlugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Store variable history in-process instead of embedded MongoServer. Applies to variables created after change or after restart
+ */
+public class SystemNativeInMemoryStorageSetting
+  implements CoreSettingPlugin<Boolean>, SettingPluginBoolean {
+
+  @Override
+  public @NotNull GroupKey getGroupKey() {
+    return GroupKey.system;
+  }
+
+  @Override
+  public @NotNull String getSubGroupKey() {
+    return "DB";
+  }
+
+  @Override
+  public boolean defaultValue() {
+    return true;
+  }
+
+  @Override
+  public int order() {
+    return 2600;
+  }
+}
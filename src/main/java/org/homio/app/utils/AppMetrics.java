@@ -0,0 +1,111 @@
+package org.homio.app.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight in-process counters, gauges and timers. Values are shown in 'metrics' console tab
+ */
+public final class AppMetrics {
+
+  private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+  private static final Map<String, Supplier<Object>> gauges = new ConcurrentHashMap<>();
+  private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public static @NotNull LongAdder counter(@NotNull String name) {
+    return counters.computeIfAbsent(name, n -> new LongAdder());
+  }
+
+  public static void gauge(@NotNull String name, @NotNull Supplier<Object> supplier) {
+    gauges.put(name, supplier);
+  }
+
+  public static void removeGauge(@NotNull String name) {
+    gauges.remove(name);
+  }
+
+  public static @NotNull Timer timer(@NotNull String name) {
+    return timers.computeIfAbsent(name, n -> new Timer());
+  }
+
+  /**
+   * @return current values of all metrics sorted by name
+   */
+  public static @NotNull Map<String, Object> snapshot() {
+    Map<String, Object> values = new TreeMap<>();
+    counters.forEach((name, counter) -> values.put(name, counter.sum()));
+    gauges.forEach((name, gauge) -> {
+      try {
+        values.put(name, gauge.get());
+      } catch (Exception ex) {
+        values.put(name, "N/A");
+      }
+    });
+    timers.forEach((name, timer) -> values.put(name, timer.toString()));
+    return values;
+  }
+
+  /**
+   * Count/avg/max and log10 histogram of recorded durations
+   */
+  public static final class Timer {
+
+    // upper bounds of histogram buckets in ms, last bucket is everything above
+    private static final long[] BUCKETS_MS = {1, 10, 100, 1000};
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder[] histogram = new LongAdder[BUCKETS_MS.length + 1];
+
+    private Timer() {
+      for (int i = 0; i < histogram.length; i++) {
+        histogram[i] = new LongAdder();
+      }
+    }
+
+    public void record(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      int bucket = 0;
+      while (bucket < BUCKETS_MS.length && millis >= BUCKETS_MS[bucket]) {
+        bucket++;
+      }
+      histogram[bucket].increment();
+    }
+
+    public void recordSince(long startNanos) {
+      record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    @Override
+    public String toString() {
+      long count = this.count.sum();
+      StringBuilder builder = new StringBuilder()
+        .append("count: ").append(count)
+        .append(", avg: ").append(count == 0 ? 0 : String.format("%.3f", totalNanos.sum() / 1_000_000D / count)).append("ms")
+        .append(", max: ").append(String.format("%.3f", maxNanos.get() / 1_000_000D)).append("ms")
+        .append(", hist: [");
+      for (int i = 0; i < histogram.length; i++) {
+        builder.append(i == BUCKETS_MS.length ? ">=" + BUCKETS_MS[i - 1] : "<" + BUCKETS_MS[i]).append("ms: ").append(histogram[i].sum());
+        if (i < BUCKETS_MS.length) {
+          builder.append(", ");
+        }
+      }
+      return builder.append("]").toString();
+    }
+  }
+}
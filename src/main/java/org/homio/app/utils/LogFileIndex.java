@@ -0,0 +1,172 @@
+package org.homio.app.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sparse index of line start offsets of append-only log file. Offset of every LINES_PER_CHECKPOINT line is kept, so any line
+ * is reachable by seek to nearest checkpoint and skipping less than LINES_PER_CHECKPOINT lines. Index is extended incrementally
+ * when file grows and rebuilt when file was truncated
+ */
+public final class LogFileIndex {
+
+  private static final int LINES_PER_CHECKPOINT = 1024;
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int TAIL_WINDOW_SIZE = 1024 * 1024;
+
+  private final @NotNull Path path;
+  // checkpoints[i] is offset of line i * LINES_PER_CHECKPOINT
+  private long[] checkpoints = new long[16];
+  private int checkpointCount;
+  private long newLineCount;
+  private long indexedSize;
+
+  public LogFileIndex(@NotNull Path path) {
+    this.path = path;
+    reset();
+  }
+
+  /**
+   * Same semantic as counting '\n' symbols, but not empty file without line separators has 1 line
+   */
+  public synchronized long getLineCount() throws IOException {
+    update();
+    return newLineCount == 0 && indexedSize > 0 ? 1 : newLineCount;
+  }
+
+  /**
+   * Read at most maxLines lines starting from fromLine
+   */
+  public synchronized @NotNull List<String> readLines(long fromLine, int maxLines, @NotNull Charset charset) throws IOException {
+    update();
+    List<String> lines = new ArrayList<>();
+    if (maxLines <= 0) {
+      return lines;
+    }
+    int checkpoint = (int) Math.min(Math.max(0, fromLine) / LINES_PER_CHECKPOINT, checkpointCount - 1);
+    long skip = Math.max(0, fromLine) - (long) checkpoint * LINES_PER_CHECKPOINT;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         BufferedReader reader = new BufferedReader(Channels.newReader(channel.position(checkpoints[checkpoint]), charset))) {
+      String line;
+      while (lines.size() < maxLines && (line = reader.readLine()) != null) {
+        if (skip > 0) {
+          skip--;
+        } else {
+          lines.add(line);
+        }
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Must be called if file was recreated or truncated by owner
+   */
+  public synchronized void reset() {
+    checkpoints[0] = 0;
+    checkpointCount = 1;
+    newLineCount = 0;
+    indexedSize = 0;
+  }
+
+  /**
+   * Read last lines of file using windows from the end of file, so cost doesn't depend on file size. File is read with
+   * positional reads into heap buffer instead of memory mapping, mapped file can't be renamed on Windows while mapping is
+   * alive, which breaks log rotation
+   */
+  public static @NotNull List<String> tail(@NotNull Path path, int lines, @NotNull Charset charset) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size == 0 || lines <= 0) {
+        return List.of();
+      }
+      long from = 0;
+      int found = 0;
+      long windowEnd = size;
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, TAIL_WINDOW_SIZE));
+      search:
+      while (windowEnd > 0) {
+        long windowStart = Math.max(0, windowEnd - TAIL_WINDOW_SIZE);
+        buffer.clear().limit((int) (windowEnd - windowStart));
+        readFully(channel, buffer, windowStart);
+        for (int i = (int) (windowEnd - windowStart) - 1; i >= 0; i--) {
+          long offset = windowStart + i;
+          // trailing line separator doesn't start new line
+          if (buffer.get(i) == '\n' && offset != size - 1 && ++found == lines) {
+            from = offset + 1;
+            break search;
+          }
+        }
+        windowEnd = windowStart;
+      }
+      if (size - from > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Requested tail is too large");
+      }
+      ByteBuffer contentBuffer = ByteBuffer.allocate((int) (size - from));
+      readFully(channel, contentBuffer, from);
+      String content = charset.decode(contentBuffer.flip()).toString();
+      List<String> result = new ArrayList<>(Arrays.asList(content.split("\r?\n")));
+      if (!result.isEmpty() && result.get(result.size() - 1).isEmpty()) {
+        result.remove(result.size() - 1);
+      }
+      return result;
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file " + position);
+      }
+      position += read;
+    }
+  }
+
+  private void update() throws IOException {
+    long size = Files.size(path);
+    if (size < indexedSize) {
+      reset();
+    }
+    if (size == indexedSize) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+      long position = indexedSize;
+      while (position < size) {
+        buffer.clear();
+        int read = channel.read(buffer, position);
+        if (read <= 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          if (buffer.get(i) == '\n' && ++newLineCount % LINES_PER_CHECKPOINT == 0) {
+            addCheckpoint(position + i + 1);
+          }
+        }
+        position += read;
+      }
+      indexedSize = position;
+    }
+  }
+
+  private void addCheckpoint(long offset) {
+    if (checkpointCount == checkpoints.length) {
+      checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+    }
+    checkpoints[checkpointCount++] = offset;
+  }
+}
@@ -0,0 +1,81 @@
+package org.homio.app.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable char trie which finds value of longest key that is prefix of passed string. Lookup walks only chars of matched
+ * prefix and doesn't allocate. Rebuild instance if keys changed
+ */
+public final class PrefixTrie<V> {
+
+  private static final char[] NO_CHARS = new char[0];
+
+  private final Node<V> root;
+  private final int size;
+
+  public PrefixTrie(@NotNull Map<String, V> values) {
+    BuildNode<V> buildRoot = new BuildNode<>();
+    for (Map.Entry<String, V> entry : values.entrySet()) {
+      BuildNode<V> node = buildRoot;
+      for (int i = 0; i < entry.getKey().length(); i++) {
+        node = node.children.computeIfAbsent(entry.getKey().charAt(i), c -> new BuildNode<>());
+      }
+      node.value = entry.getValue();
+    }
+    this.root = buildRoot.build();
+    this.size = values.size();
+  }
+
+  /**
+   * @return value of longest key which is prefix of text or null if no such key
+   */
+  public @Nullable V findByPrefix(@NotNull String text) {
+    Node<V> node = root;
+    V found = node.value;
+    for (int i = 0; i < text.length(); i++) {
+      int index = Arrays.binarySearch(node.chars, text.charAt(i));
+      if (index < 0) {
+        break;
+      }
+      node = node.children[index];
+      if (node.value != null) {
+        found = node.value;
+      }
+    }
+    return found;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private record Node<V>(char[] chars, Node<V>[] children, @Nullable V value) {
+  }
+
+  private static final class BuildNode<V> {
+
+    // sorted, so compacted node may use binary search
+    private final TreeMap<Character, BuildNode<V>> children = new TreeMap<>();
+    private V value;
+
+    @SuppressWarnings("unchecked")
+    private Node<V> build() {
+      if (children.isEmpty()) {
+        return new Node<>(NO_CHARS, new Node[0], value);
+      }
+      char[] chars = new char[children.size()];
+      Node<V>[] nodes = new Node[children.size()];
+      int i = 0;
+      for (Map.Entry<Character, BuildNode<V>> entry : children.entrySet()) {
+        chars[i] = entry.getKey();
+        nodes[i++] = entry.getValue().build();
+      }
+      return new Node<>(chars, nodes, value);
+    }
+  }
+}
@@ -5,6 +5,8 @@ import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.homio.api.workspace.Lock;
 import org.homio.api.workspace.WorkspaceBlock;
+import org.homio.app.utils.AppMetrics;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,11 +18,15 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 @Log4j2
 public class LockImpl implements Lock {
 
+  // time from event/signal to awaiting block is resumed
+  private static final AppMetrics.Timer RESUME_TIMER = AppMetrics.timer("workspace.lock.resume");
+
   private final Condition condition;
   private final ReentrantLock lock;
   private final Predicate<Object> valueCheck;
@@ -28,6 +34,10 @@ public class LockImpl implements Lock {
   private final Object expectedValue;
   private Map<String, Runnable> releaseListeners;
   private List<Consumer<Object>> signalListener;
+  // condition that is checked before wait. Used by event driven locks, which have no polling
+  private @Nullable Supplier<Boolean> readyCheck;
+  // System.nanoTime() of source event of last signal. guarded by lock
+  private long signalledAt;
 
   @Getter
   private Object value;
@@ -66,11 +76,18 @@ public class LockImpl implements Lock {
   public boolean await(WorkspaceBlock workspaceBlock, int timeout, TimeUnit timeUnit) {
     try {
       lock.lock();
+      if (isReady()) {
+        return true;
+      }
+      long lastSignalledAt = signalledAt;
       if (timeout == 0) {
         condition.await();
       } else {
         condition.await(timeout, timeUnit);
       }
+      if (signalledAt != lastSignalledAt) {
+        RESUME_TIMER.recordSince(signalledAt);
+      }
       return true;
     } catch (InterruptedException ex) {
       if (!Thread.currentThread().isInterrupted()) {
@@ -85,6 +102,13 @@ public class LockImpl implements Lock {
   }
 
   public void signalAll(Object value) {
+    signalAll(value, System.nanoTime());
+  }
+
+  /**
+   * @param since - System.nanoTime() when source event was fired
+   */
+  public void signalAll(Object value, long since) {
     if (!this.valueCheck.test(value)) {
       return;
     }
@@ -92,6 +116,7 @@ public class LockImpl implements Lock {
       log.debug("Call broadcast <{}> signalAll", key);
       lock.lock();
       this.value = value;
+      this.signalledAt = since;
 
       if (signalListener != null) {
         signalListener.forEach(l -> l.accept(value));
@@ -105,6 +130,39 @@ public class LockImpl implements Lock {
     }
   }
 
+  /**
+   * Signal lock if condition is true. Condition is evaluated under lock, so it never runs in parallel
+   * with readyCheck of awaiting thread
+   */
+  public void signalIf(Supplier<Boolean> condition, long since) {
+    try {
+      lock.lock();
+      if (condition.get()) {
+        signalAll(null, since);
+      }
+    } catch (Exception ex) {
+      log.error("Error while check broadcast <{}> condition", key, ex);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isReady() {
+    if (readyCheck == null) {
+      return false;
+    }
+    try {
+      return readyCheck.get();
+    } catch (Exception ex) {
+      log.error("Error while check broadcast <{}> condition", key, ex);
+      return false;
+    }
+  }
+
+  public void setReadyCheck(@Nullable Supplier<Boolean> readyCheck) {
+    this.readyCheck = readyCheck;
+  }
+
   public void addReleaseListener(String key, Runnable listener) {
     if (releaseListeners == null) {
       releaseListeners = new HashMap<>();
@@ -5,7 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -25,8 +27,24 @@ public class LockManagerImpl implements LockManager {
   /** Signal all lock with a specified name and value */
   @Override
   public void signalAll(String key, Object value) {
-    if (workspaceWarehouse.broadcastListeners.containsKey(key)) {
-      workspaceWarehouse.broadcastListeners.get(key).forEach(a -> a.signalAll(value));
+    onEvent(key, value, System.nanoTime());
+  }
+
+  /**
+   * Signal locks with a specified name and locks which conditions depend on event key
+   *
+   * @param created - System.nanoTime() when event was fired
+   */
+  public void onEvent(String key, Object value, long created) {
+    List<LockImpl> locks = workspaceWarehouse.broadcastListeners.get(key);
+    if (locks != null) {
+      locks.forEach(a -> a.signalAll(value, created));
+    }
+    List<Pair<LockImpl, Supplier<Boolean>>> listeners = workspaceWarehouse.eventListeners.get(key);
+    if (listeners != null) {
+      for (Pair<LockImpl, Supplier<Boolean>> listener : listeners) {
+        listener.getKey().signalIf(listener.getValue(), created);
+      }
     }
   }
 
@@ -52,6 +70,20 @@ public class LockManagerImpl implements LockManager {
   @Override
   public Lock listenEvent(WorkspaceBlock workspaceBlock, Supplier<Boolean> supplier) {
     LockImpl lock = (LockImpl) createLock(workspaceBlock);
+    Set<String> eventKeys = ((WorkspaceBlockImpl) workspaceBlock).getInputEventKeys();
+    // condition without event driven values (constants only) would never be rechecked, so it's polled
+    if (eventKeys != null && !eventKeys.isEmpty()) {
+      // condition reads only event driven values, so it's enough to check it on these events
+      log.debug("Listen events {} for block: <{}>", eventKeys, workspaceBlock.getId());
+      lock.setReadyCheck(supplier);
+      for (String eventKey : eventKeys) {
+        workspaceWarehouse
+            .eventListeners
+            .computeIfAbsent(eventKey, k -> new CopyOnWriteArrayList<>())
+            .add(Pair.of(lock, supplier));
+      }
+      return lock;
+    }
     workspaceWarehouse.broadcastListenersMap.put(workspaceBlock.getId(), Pair.of(lock, supplier));
 
     if (workspaceWarehouse.threadContext == null) {
@@ -82,6 +114,12 @@ public class LockManagerImpl implements LockManager {
     }
     workspaceWarehouse.broadcastListenersMap.clear();
 
+    for (List<Pair<LockImpl, Supplier<Boolean>>> listeners :
+        workspaceWarehouse.eventListeners.values()) {
+      listeners.forEach(pair -> pair.getKey().release());
+    }
+    workspaceWarehouse.eventListeners.clear();
+
     for (List<LockImpl> locks : workspaceWarehouse.broadcastListeners.values()) {
       locks.forEach(LockImpl::release);
     }
@@ -98,6 +136,8 @@ public class LockManagerImpl implements LockManager {
     private final Map<String, List<LockImpl>> broadcastListeners = new ConcurrentHashMap<>();
     private final Map<String, Pair<LockImpl, Supplier<Boolean>>> broadcastListenersMap =
         new ConcurrentHashMap<>();
+    private final Map<String, List<Pair<LockImpl, Supplier<Boolean>>>> eventListeners =
+        new ConcurrentHashMap<>();
     private ThreadContext<Object> threadContext;
   }
 }
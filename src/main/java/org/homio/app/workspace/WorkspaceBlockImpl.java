@@ -12,14 +12,17 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -54,6 +57,11 @@ import org.springframework.core.io.Resource;
 @Log4j2
 public class WorkspaceBlockImpl implements WorkspaceBlock {
 
+  // reporters of these extensions are calculated only from own inputs
+  private static final Set<String> PURE_EXTENSIONS = Set.of("operator");
+  // not pure reporters of PURE_EXTENSIONS
+  private static final Set<String> IMPURE_OPCODES = Set.of("operator_random");
+
   @Getter private final @NotNull String id;
 
   @Getter private final @NotNull WorkspaceTabHolder workspaceTabHolder;
@@ -88,6 +96,16 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
 
   @Getter private @NotNull List<String> procedureArgumentIds = List.of();
 
+  // resolved inputs/fields/handler. Built once by compile(), so evaluation never touches json
+  @Setter(AccessLevel.NONE)
+  private @Nullable Map<String, InputSlot> inputSlots;
+
+  @Setter(AccessLevel.NONE)
+  private @Nullable Map<String, FieldSlot> fieldSlots;
+
+  @Setter(AccessLevel.NONE)
+  private @Nullable Scratch3Block scratch3Block;
+
   WorkspaceBlockImpl(@NotNull String id, @NotNull WorkspaceTabHolder workspaceTabHolder) {
     this.id = id;
     this.workspaceTabHolder = workspaceTabHolder;
@@ -150,8 +168,7 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
   @Override
   public <P> List<P> getMenuValues(
       String key, MenuBlock menuBlock, Class<P> type, String delimiter) {
-    String menuId = this.inputs.get(key).getString(1);
-    WorkspaceBlock refWorkspaceBlock = workspaceTabHolder.getBlocks().get(menuId);
+    WorkspaceBlock refWorkspaceBlock = getInputSlot(key).block();
     String value = refWorkspaceBlock.getField(menuBlock.getName());
     List<String> items = Stream.of(value.split(delimiter)).collect(Collectors.toList());
     List<P> result = new ArrayList<>();
@@ -214,29 +231,28 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
 
   @Override
   public String getField(String fieldName) {
-    return this.fields.get(fieldName).getString(0);
+    return getFieldSlots().get(fieldName).value();
   }
 
   @Override
   public boolean getFieldBoolean(String fieldName) {
-    return this.fields.get(fieldName).getBoolean(0);
+    return getFieldSlots().get(fieldName).boolValue();
   }
 
   @Override
   public String getFieldId(String fieldName) {
-    return this.fields.get(fieldName).optString(1);
+    return getFieldSlots().get(fieldName).id();
   }
 
   @Override
   public boolean hasField(String fieldName) {
-    return this.fields.containsKey(fieldName);
+    return getFieldSlots().containsKey(fieldName);
   }
 
   @SneakyThrows
   @Override
   public <T> T getSetting(Class<T> settingClass) {
-    String ref = getInputString("SETTING");
-    String content = workspaceTabHolder.getBlocks().get(ref).getField("TEXT");
+    String content = getInputSlot("SETTING").block().getField("TEXT");
     return OBJECT_MAPPER.readValue(content, settingClass);
   }
 
@@ -301,6 +317,9 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
   }
 
   public Scratch3Block getScratch3Block() {
+    if (scratch3Block != null) {
+      return scratch3Block;
+    }
     Scratch3ExtensionBlocks scratch3ExtensionBlocks =
         workspaceTabHolder.getScratch3Blocks().get(extensionId);
     if (scratch3ExtensionBlocks == null) {
@@ -310,6 +329,7 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
       if (scratch3Block == null) {
         logErrorAndThrow(sendScratch3BlockNotFound(extensionId, opcode));
       }
+      this.scratch3Block = scratch3Block;
       return scratch3Block;
     }
     // actually unreachable code
@@ -372,75 +392,28 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
 
   @Override
   public boolean getInputBoolean(String key) {
-    Object input = getInput(key, false);
+    InputSlot slot = getInputSlot(key);
+    Object input = slot.get(this, false);
     if (input instanceof Boolean) {
       return (boolean) input;
     }
-    return workspaceTabHolder.getBlocks().get(cast(input)).evaluate().boolValue();
+    return requireBlock(slot, key).evaluate().boolValue();
   }
 
   @Override
   public WorkspaceBlock getInputWorkspaceBlock(String key) {
-    return workspaceTabHolder.getBlocks().get(cast(getInput(key, false)));
+    return getInputSlot(key).block();
   }
 
   @Override
   public Object getInput(String key, boolean fetchValue) {
-    JSONArray objects = this.inputs.get(key);
-    JSONArray array;
-
-    switch (objects.getInt(0)) {
-      case 5: // direct value
-        return objects.getString(1);
-      case 3: // ref to another block
-        String ref;
-        // sometimes it may be array, not plain string
-        array = objects.optJSONArray(1);
-        if (array != null) {
-          PrimitiveRef primitiveRef = PrimitiveRef.values()[array.getInt(0)];
-          if (fetchValue) {
-            return primitiveRef.fetchValue(array, context());
-          } else {
-            return primitiveRef.getRef(array).toString();
-          }
-        } else {
-          ref = objects.getString(1);
-          if (fetchValue) {
-            Object evaluateValue = workspaceTabHolder.getBlocks().get(ref).evaluate();
-            this.lastChildValue = new AtomicReference<>(State.of(evaluateValue));
-            return evaluateValue;
-          }
-          return ref;
-        }
-      case 1:
-        array = objects.optJSONArray(1);
-        if (array != null) {
-          return PrimitiveRef.values()[array.getInt(0)].getRef(array);
-        }
-        return PrimitiveRef.values()[objects.getInt(0)].getRef(objects);
-      case 2: // just a reference
-        String reference = objects.getString(1);
-        return fetchValue ? workspaceTabHolder.getBlocks().get(reference).evaluate() : reference;
-      default:
-        logErrorAndThrow("Unable to fetch/parse integer value from input with key: " + key);
-        return null;
-    }
+    return getInputSlot(key).get(this, fetchValue);
   }
 
   @Override
   public boolean hasInput(String key) {
-    JSONArray objects = this.inputs.get(key);
-    if (objects == null) {
-      return false;
-    }
-    return switch (objects.getInt(0)) {
-      case 5, 3, 2 -> true;
-      case 1 -> !objects.isNull(1);
-      default -> {
-        logErrorAndThrow("Unable to fetch/parse integer value from input with key: " + key);
-        yield false;
-      }
-    };
+    InputSlot slot = getInputSlots().get(key);
+    return slot != null && slot.isPresent();
   }
 
   @Override
@@ -542,8 +515,7 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
   }
 
   private <P> P getMenuValueInternal(String key, MenuBlock menuBlock, Class<P> type) {
-    String menuId = this.inputs.get(key).getString(1);
-    WorkspaceBlock refWorkspaceBlock = workspaceTabHolder.getBlocks().get(menuId);
+    WorkspaceBlock refWorkspaceBlock = getInputSlot(key).block();
     String fieldValue = refWorkspaceBlock.getField(menuBlock.getName());
     if (Enum.class.isAssignableFrom(type)) {
       for (P p : type.getEnumConstants()) {
@@ -576,8 +548,164 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
     throw new RuntimeException("Must be never calls");
   }
 
-  private String cast(Object object) {
-    return (String) object;
+  /**
+   * Resolve raw scratch json of this block into input/field slots and handler reference. Must be
+   * called after all blocks of workspace tab are parsed, as slots keep direct links to child blocks
+   */
+  void compile() {
+    Map<String, WorkspaceBlockImpl> blocks = workspaceTabHolder.getBlocks();
+    Map<String, InputSlot> inputSlots = new HashMap<>();
+    for (Map.Entry<String, JSONArray> entry : inputs.entrySet()) {
+      InputSlot slot;
+      try {
+        slot = compileInput(entry.getKey(), entry.getValue(), blocks);
+      } catch (Exception ex) {
+        slot =
+            new InvalidSlot(
+                "Unable to parse input '%s': %s"
+                    .formatted(entry.getKey(), CommonUtils.getErrorMessage(ex)),
+                true);
+      }
+      inputSlots.put(entry.getKey(), slot);
+    }
+    Map<String, FieldSlot> fieldSlots = new HashMap<>();
+    for (Map.Entry<String, JSONArray> entry : fields.entrySet()) {
+      JSONArray array = entry.getValue();
+      Object value = array.opt(0);
+      fieldSlots.put(
+          entry.getKey(),
+          new FieldSlot(
+              value == null ? null : value.toString(),
+              Boolean.TRUE.equals(value) || "true".equalsIgnoreCase(String.valueOf(value)),
+              array.optString(1)));
+    }
+    Scratch3ExtensionBlocks extensionBlocks = workspaceTabHolder.getScratch3Blocks().get(extensionId);
+    if (extensionBlocks != null) {
+      this.scratch3Block = extensionBlocks.getBlocksMap().get(opcode);
+    }
+    this.fieldSlots = Map.copyOf(fieldSlots);
+    this.inputSlots = Map.copyOf(inputSlots);
+  }
+
+  /**
+   * Event keys which values are read by inputs of this block. Statement inputs are skipped.
+   *
+   * @return null if some nested reporter reads value which isn't delivered as event
+   */
+  public @Nullable Set<String> getInputEventKeys() {
+    Set<String> keys = new HashSet<>();
+    for (Map.Entry<String, InputSlot> entry : getInputSlots().entrySet()) {
+      if (!entry.getKey().startsWith("SUBSTACK") && !collectEventKeys(entry.getValue(), keys, 0)) {
+        return null;
+      }
+    }
+    return keys;
+  }
+
+  private static boolean collectEventKeys(InputSlot slot, Set<String> keys, int depth) {
+    if (slot instanceof InvalidSlot) {
+      return false;
+    }
+    if (slot instanceof PrimitiveSlot primitiveSlot && primitiveSlot.varEntityID() != null) {
+      keys.add(primitiveSlot.ref());
+      keys.add(primitiveSlot.varEntityID());
+      return true;
+    }
+    WorkspaceBlockImpl block = slot.block();
+    return block == null || block.collectEventKeys(keys, depth + 1);
+  }
+
+  private boolean collectEventKeys(Set<String> keys, int depth) {
+    if (depth > 64) {
+      return false;
+    }
+    if ("data".equals(extensionId) && "variable".equals(opcode)) {
+      // variable fires event with full entityID. Same id as 'onchange_variable' hat listens
+      String variableId = getFieldId("VARIABLE");
+      keys.add(variableId);
+      keys.add(DataSourceUtil.getSelection(variableId).getEntityValue());
+      return true;
+    }
+    if (!shadow && (!PURE_EXTENSIONS.contains(extensionId) || IMPURE_OPCODES.contains(extensionId + "_" + opcode))) {
+      return false;
+    }
+    for (InputSlot slot : getInputSlots().values()) {
+      if (!collectEventKeys(slot, keys, depth)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isCompiled() {
+    return inputSlots != null;
+  }
+
+  private static InputSlot compileInput(
+      String key, JSONArray objects, Map<String, WorkspaceBlockImpl> blocks) {
+    JSONArray array = objects.optJSONArray(1);
+    switch (objects.optInt(0, -1)) {
+      case 5: // direct value
+        return new ConstantSlot(objects.optString(1), true, blocks.get(objects.optString(1)));
+      case 3: // ref to another block
+        // sometimes it may be array, not plain string
+        if (array != null) {
+          PrimitiveRef primitiveRef = PrimitiveRef.values()[array.getInt(0)];
+          String ref = primitiveRef.getRef(array).toString();
+          String varEntityID =
+              primitiveRef == PrimitiveRef.VAR_PRIMITIVE
+                  ? DataSourceUtil.getSelection(array.get(2).toString()).getEntityValue()
+                  : null;
+          Object value = varEntityID == null ? primitiveRef.fetchValue(array, null) : null;
+          return new PrimitiveSlot(ref, value, varEntityID, blocks.get(ref));
+        }
+        return new BlockSlot(objects.getString(1), true, blocks.get(objects.getString(1)));
+      case 1:
+        if (array != null) {
+          Object ref = PrimitiveRef.values()[array.getInt(0)].getRef(array);
+          return new ConstantSlot(ref, true, blocks.get(ref.toString()));
+        }
+        String ref = objects.isNull(1) ? null : objects.get(1).toString();
+        return new ConstantSlot(ref, ref != null, ref == null ? null : blocks.get(ref));
+      case 2: // just a reference
+        return new BlockSlot(objects.getString(1), false, blocks.get(objects.getString(1)));
+      default:
+        return new InvalidSlot(
+            "Unable to fetch/parse integer value from input with key: " + key, false);
+    }
+  }
+
+  private Map<String, InputSlot> getInputSlots() {
+    Map<String, InputSlot> slots = this.inputSlots;
+    if (slots == null) {
+      // block created outside workspace parsing
+      compile();
+      slots = this.inputSlots;
+    }
+    return slots;
+  }
+
+  private Map<String, FieldSlot> getFieldSlots() {
+    if (this.fieldSlots == null) {
+      compile();
+    }
+    return this.fieldSlots;
+  }
+
+  private InputSlot getInputSlot(String key) {
+    InputSlot slot = getInputSlots().get(key);
+    if (slot == null) {
+      logErrorAndThrow("Unable to find input with key: " + key);
+    }
+    return slot;
+  }
+
+  private WorkspaceBlockImpl requireBlock(InputSlot slot, String key) {
+    WorkspaceBlockImpl block = slot.block();
+    if (block == null) {
+      logErrorAndThrow("Unable to find block referenced by input: " + key);
+    }
+    return block;
   }
 
   private String sendScratch3ExtensionNotFound(String extensionId) {
@@ -592,6 +720,90 @@ public class WorkspaceBlockImpl implements WorkspaceBlock {
     return msg;
   }
 
+  /** Resolved input of block */
+  private interface InputSlot {
+
+    @Nullable
+    Object get(WorkspaceBlockImpl owner, boolean fetchValue);
+
+    boolean isPresent();
+
+    /** Block which id is value of input, i.e. reporter or menu block */
+    @Nullable
+    WorkspaceBlockImpl block();
+  }
+
+  /** Value that doesn't depend on evaluation: direct value, shadow primitive or menu block id */
+  private record ConstantSlot(Object value, boolean isPresent, WorkspaceBlockImpl block)
+      implements InputSlot {
+
+    @Override
+    public Object get(WorkspaceBlockImpl owner, boolean fetchValue) {
+      return value;
+    }
+  }
+
+  /** Reporter block. trackValue keeps evaluated value as owner's last child value */
+  private record BlockSlot(String ref, boolean trackValue, WorkspaceBlockImpl block)
+      implements InputSlot {
+
+    @Override
+    public Object get(WorkspaceBlockImpl owner, boolean fetchValue) {
+      if (!fetchValue) {
+        return ref;
+      }
+      State value = owner.requireBlock(this, ref).evaluate();
+      if (trackValue) {
+        owner.lastChildValue = new AtomicReference<>(State.of(value));
+      }
+      return value;
+    }
+
+    @Override
+    public boolean isPresent() {
+      return true;
+    }
+  }
+
+  /** Primitive that covers reporter, value is fetched from variable if varEntityID is set */
+  private record PrimitiveSlot(
+      String ref, Object value, String varEntityID, WorkspaceBlockImpl block)
+      implements InputSlot {
+
+    @Override
+    public Object get(WorkspaceBlockImpl owner, boolean fetchValue) {
+      if (!fetchValue) {
+        return ref;
+      }
+      if (varEntityID != null) {
+        return State.of(owner.context().var().getRawValue(varEntityID));
+      }
+      return value;
+    }
+
+    @Override
+    public boolean isPresent() {
+      return true;
+    }
+  }
+
+  /** Input which json can't be resolved. Error is thrown only when input is requested */
+  private record InvalidSlot(String error, boolean isPresent) implements InputSlot {
+
+    @Override
+    public Object get(WorkspaceBlockImpl owner, boolean fetchValue) {
+      owner.logErrorAndThrow(error);
+      return null;
+    }
+
+    @Override
+    public WorkspaceBlockImpl block() {
+      return null;
+    }
+  }
+
+  private record FieldSlot(String value, boolean boolValue, String id) {}
+
   @AllArgsConstructor
   @NoArgsConstructor
   private enum PrimitiveRef {
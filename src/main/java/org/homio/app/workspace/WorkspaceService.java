@@ -5,6 +5,10 @@ import static org.homio.api.util.Constants.PRIMARY_DEVICE;
 import com.pivovarit.function.ThrowingRunnable;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -33,9 +37,11 @@ import org.homio.api.workspace.WorkspaceEventListener;
 import org.homio.api.workspace.scratch.Scratch3Block;
 import org.homio.api.workspace.scratch.Scratch3ExtensionBlocks;
 import org.homio.app.manager.AddonService;
+import org.homio.app.manager.common.impl.ContextBGPImpl;
 import org.homio.app.model.entity.WorkspaceEntity;
 import org.homio.app.setting.workspace.WorkspaceClearButtonSetting;
 import org.homio.app.spring.ContextRefreshed;
+import org.homio.app.utils.AppMetrics;
 import org.homio.app.workspace.block.Scratch3Space;
 import org.homio.app.workspace.block.core.*;
 import org.json.JSONArray;
@@ -134,21 +140,20 @@ public class WorkspaceService implements ContextRefreshed {
     WorkspaceTabHolder workspaceTabHolder = tabs.remove(workspaceTab.getEntityID());
     if (workspaceTabHolder != null) {
       releaseWorkspaceEntity(workspaceTab, workspaceTabHolder);
-      // wait to finish all nested processes if workspace started before
-      log.info(
-          "Wait workspace {}, {} to able to finish old one",
-          workspaceTab.getTitle(),
-          TIME_WAIT_OLD_WORKSPACE);
-      Thread.sleep(TIME_WAIT_OLD_WORKSPACE.toMillis());
+      // wait to finish all top level threads if workspace started before
+      awaitStopped(workspaceTab, workspaceTabHolder);
     }
 
     workspaceTabHolder =
         new WorkspaceTabHolder(workspaceTab.getEntityID(), context, scratch3Blocks);
+    workspaceTabHolder.virtualThreads =
+        context.setting().getEnv("workspace-virtual-threads", false, true);
     tabs.put(workspaceTab.getEntityID(), workspaceTabHolder);
 
     if (StringUtils.isNotEmpty(workspaceTab.getContent())) {
       try {
         parseWorkspace(workspaceTab, workspaceTabHolder);
+        compileWorkspace(workspaceTabHolder);
         var topWorkspaces = workspaceTabHolder.blocks.values().stream()
                 .filter(workspaceBlock -> workspaceBlock.isTopLevel() && !workspaceBlock.isShadow())
                         .toList();
@@ -179,12 +184,37 @@ public class WorkspaceService implements ContextRefreshed {
     }
   }
 
-  private void fireTopWorkspaceBlock(WorkspaceBlock workspaceBlock) {
-    this.context
-            .bgp()
-            .builder("workspace-" + workspaceBlock.getId())
-            .tap(workspaceBlock::setThreadContext)
-            .execute(createWorkspaceThread(workspaceBlock));
+  private void fireTopWorkspaceBlock(WorkspaceBlockImpl workspaceBlock) {
+    WorkspaceTabHolder workspaceTabHolder = workspaceBlock.getWorkspaceTabHolder();
+    workspaceTabHolder.runningBlocks.register();
+    AtomicBoolean started = new AtomicBoolean();
+    AtomicBoolean finished = new AtomicBoolean();
+    Runnable onStopped =
+        () -> {
+          if (finished.compareAndSet(false, true)) {
+            workspaceTabHolder.runningBlocks.arriveAndDeregister();
+          }
+        };
+    ThrowingRunnable<Exception> workspaceThread = createWorkspaceThread(workspaceBlock);
+    ((ContextBGPImpl) this.context.bgp())
+        .builder("workspace-" + workspaceBlock.getId(), workspaceTabHolder.virtualThreads)
+        .tap(workspaceBlock::setThreadContext)
+        // thread cancelled before start
+        .onFinally(
+            () -> {
+              if (!started.get()) {
+                onStopped.run();
+              }
+            })
+        .execute(
+            () -> {
+              started.set(true);
+              try {
+                workspaceThread.run();
+              } finally {
+                onStopped.run();
+              }
+            });
   }
 
   private ThrowingRunnable<Exception> createWorkspaceThread(WorkspaceBlock workspaceBlock) {
@@ -202,6 +232,32 @@ public class WorkspaceService implements ContextRefreshed {
     };
   }
 
+  /**
+   * Released blocks interrupt own threads, so usually all of them are finished almost immediately.
+   * TIME_WAIT_OLD_WORKSPACE is only upper limit for blocks that ignore interruption
+   */
+  private void awaitStopped(WorkspaceEntity workspaceTab, WorkspaceTabHolder workspaceTabHolder)
+      throws InterruptedException {
+    long started = System.nanoTime();
+    Phaser runningBlocks = workspaceTabHolder.runningBlocks;
+    try {
+      runningBlocks.awaitAdvanceInterruptibly(
+          runningBlocks.arriveAndDeregister(),
+          TIME_WAIT_OLD_WORKSPACE.toMillis(),
+          TimeUnit.MILLISECONDS);
+      log.info(
+          "Workspace {} stopped in {}ms",
+          workspaceTab.getTitle(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    } catch (TimeoutException ex) {
+      log.warn(
+          "Workspace {} still has {} running blocks after {}",
+          workspaceTab.getTitle(),
+          runningBlocks.getUnarrivedParties(),
+          TIME_WAIT_OLD_WORKSPACE);
+    }
+  }
+
   private void releaseWorkspaceEntity(
       WorkspaceEntity workspaceTab, WorkspaceTabHolder oldWorkspaceTabHolder) {
     oldWorkspaceTabHolder.lockManager.release();
@@ -272,6 +328,41 @@ public class WorkspaceService implements ContextRefreshed {
     }
   }
 
+  /**
+   * Resolve every top level script into tree of compiled blocks (inputs, fields, handlers), so
+   * evaluation doesn't parse json anymore. Detached blocks are compiled afterward
+   */
+  private void compileWorkspace(WorkspaceTabHolder workspaceTabHolder) {
+    long started = System.nanoTime();
+    Deque<WorkspaceBlockImpl> queue = new ArrayDeque<>();
+    for (WorkspaceBlockImpl workspaceBlock : workspaceTabHolder.blocks.values()) {
+      if (workspaceBlock.isTopLevel()) {
+        queue.push(workspaceBlock);
+      }
+    }
+    while (!queue.isEmpty()) {
+      WorkspaceBlockImpl workspaceBlock = queue.pop();
+      if (workspaceBlock.isCompiled()) {
+        continue;
+      }
+      workspaceBlock.compile();
+      if (workspaceBlock.getNext() instanceof WorkspaceBlockImpl next) {
+        queue.push(next);
+      }
+      for (String input : workspaceBlock.getInputs().keySet()) {
+        if (workspaceBlock.getInputWorkspaceBlock(input) instanceof WorkspaceBlockImpl child) {
+          queue.push(child);
+        }
+      }
+    }
+    for (WorkspaceBlockImpl workspaceBlock : workspaceTabHolder.blocks.values()) {
+      if (!workspaceBlock.isCompiled()) {
+        workspaceBlock.compile();
+      }
+    }
+    AppMetrics.timer("workspace.compile").recordSince(started);
+  }
+
   private WorkspaceBlockImpl getOrCreateWorkspaceBlock(
       WorkspaceTabHolder workspaceTabHolder, JSONObject block, String key) {
     if (block.has(key) && !block.isNull(key)) {
@@ -391,6 +482,9 @@ public class WorkspaceService implements ContextRefreshed {
     private final Map<String, Scratch3ExtensionBlocks> scratch3Blocks;
     private final LockManagerImpl lockManager;
     private final Map<String, WorkspaceBlockImpl> blocks = new HashMap<>();
+    // top level blocks which threads are not finished yet. Holder itself is registered party
+    private final Phaser runningBlocks = new Phaser(1);
+    private boolean virtualThreads;
 
     public WorkspaceTabHolder(
         String tabId, Context context, Map<String, Scratch3ExtensionBlocks> scratch3Blocks) {
@@ -275,11 +275,9 @@ public class Scratch3ControlBlocks extends Scratch3ExtensionBlocks {
     private void whenConditionChangedHandler(WorkspaceBlock workspaceBlock) {
         AtomicReference<Boolean> ref = new AtomicReference<>();
         lockForEvent(workspaceBlock, CONDITION, () -> {
-            if (!Objects.equals(ref.get(), workspaceBlock.getInputBoolean(CONDITION))) {
-                ref.set(!ref.get());
-                return true;
-            }
-            return false;
+            // first check only remembers condition
+            Boolean previous = ref.getAndSet(workspaceBlock.getInputBoolean(CONDITION));
+            return previous != null && !previous.equals(ref.get());
         });
     }
 
@@ -56,6 +56,11 @@ public class Scratch3MutatorBlocks extends Scratch3ExtensionBlocks
     String map = workspaceBlock.getInputString("MAP");
     State lastValue = ((WorkspaceBlockImpl) workspaceBlock).getLastValue();
 
+    CompileScriptContext cached = this.compileScriptContextMap.get(map.hashCode());
+    if (cached != null && cached.isClosed()) {
+      // previous evaluation got stuck and its context was closed
+      this.compileScriptContextMap.remove(map.hashCode(), cached);
+    }
     CompileScriptContext compileScriptContext = this.compileScriptContextMap.computeIfAbsent(map.hashCode(),
       integer -> {
         String code = map;
@@ -63,10 +68,12 @@ public class Scratch3MutatorBlocks extends Scratch3ExtensionBlocks
           code = "function run() { " + code + " }";
         }
         ScriptEntity scriptEntity = new ScriptEntity().setJavaScript(code);
+        // not persisted script, block id keeps evaluations of block in same script lane
+        scriptEntity.setEntityID(workspaceBlock.getId());
         return scriptService.createCompiledScript(scriptEntity, null, lastValue);
       });
     compileScriptContext.getEngine().put("input", source);
-    return scriptService.runJavaScript(compileScriptContext);
+    return scriptService.callJavaScriptOnce(workspaceBlock.getId(), compileScriptContext);
   }
 
   private State jsonReduceEvaluate(WorkspaceBlock workspaceBlock) {
@@ -161,3 +161,4 @@ CREATE TABLE IF NOT EXISTS variable_backup (
 CREATE INDEX IF NOT EXISTS idvb ON variable_backup (id);
 
 CREATE INDEX IF NOT EXISTS vc ON variable_backup (workspaceVariable_entityID, created);
+CREATE INDEX IF NOT EXISTS vbc ON variable_backup (created);
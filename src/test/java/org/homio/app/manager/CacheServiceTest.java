@@ -0,0 +1,74 @@
+package org.homio.app.manager;
+
+import static org.homio.app.manager.CacheService.ENTITY_IDS_BY_CLASS_NAME;
+import static org.homio.app.manager.CacheService.ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+import org.homio.api.entity.BaseEntity;
+import org.homio.app.model.entity.ScriptEntity;
+import org.homio.app.model.entity.WorkspaceEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+
+public class CacheServiceTest {
+
+  private CacheManager cacheManager;
+  private CacheService cacheService;
+
+  @Before
+  public void setUp() {
+    cacheManager = CacheService.createCacheManager();
+    cacheService = new CacheService(cacheManager, mock(ApplicationContext.class));
+  }
+
+  @Test
+  public void testUnrelatedEntityStaysCachedAfterSave() {
+    ScriptEntity script = new ScriptEntity();
+    script.setEntityID("script_1");
+    WorkspaceEntity workspace = new WorkspaceEntity();
+    workspace.setEntityID("workspace_1");
+
+    Cache entityCache = cacheManager.getCache(ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI);
+    Cache idsCache = cacheManager.getCache(ENTITY_IDS_BY_CLASS_NAME);
+    entityCache.put(script.getEntityID(), script);
+    entityCache.put(workspace.getEntityID(), workspace);
+    idsCache.put(ScriptEntity.class, Set.of(script.getEntityID()));
+    idsCache.put(WorkspaceEntity.class, Set.of(workspace.getEntityID()));
+    idsCache.put(BaseEntity.class, Set.of(script.getEntityID(), workspace.getEntityID()));
+    // counters are application wide metrics, so compare with values before update
+    InstrumentedCache.CacheStats before = ((InstrumentedCache) entityCache).getStats();
+
+    cacheService.entityUpdated(script);
+
+    assertNull(entityCache.get(script.getEntityID()));
+    assertNull(idsCache.get(ScriptEntity.class));
+    assertNull(idsCache.get(BaseEntity.class));
+    assertNotNull(entityCache.get(workspace.getEntityID()));
+    assertNotNull(idsCache.get(WorkspaceEntity.class));
+
+    InstrumentedCache.CacheStats stats = ((InstrumentedCache) entityCache).getStats();
+    assertEquals(1, stats.size());
+    assertEquals(1, stats.hits() - before.hits());
+    assertEquals(1, stats.misses() - before.misses());
+    assertEquals(1, stats.evictions() - before.evictions());
+  }
+
+  @Test
+  public void testRemovedEntityEvicted() {
+    Cache entityCache = cacheManager.getCache(ENTITY_WITH_FETCH_LAZY_IGNORE_NOT_UI);
+    entityCache.put("script_2", new ScriptEntity());
+    entityCache.put("script_3", new ScriptEntity());
+
+    cacheService.entityRemoved("script_2", null);
+
+    assertNull(entityCache.get("script_2"));
+    assertNotNull(entityCache.get("script_3"));
+  }
+}
@@ -0,0 +1,61 @@
+package org.homio.app.manager.common.impl;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.homio.api.ContextVar.TransformVariableSource;
+import org.homio.app.manager.common.impl.ContextVarImpl.TransformVariableContext.ExtendedDoubleEvaluator;
+import org.homio.app.manager.common.impl.ContextVarImpl.TransformVariableSourceImpl;
+import org.homio.app.manager.common.impl.javaluator.DynamicVariableSet;
+
+/**
+ * Cost of one transform variable recalculation: power meter aggregate over 20 source variables.
+ * Compares new evaluator per recalculation with reused compiled one. Not a unit test - run main()
+ * manually
+ */
+public class TransformExpressionBenchmark {
+
+  private static final int SOURCES = 20;
+  private static final int ITERATIONS = 200_000;
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) {
+    ContextVarImpl contextVar = mock(ContextVarImpl.class);
+    when(contextVar.getRawValue(anyString())).thenReturn(1.5F);
+    List<TransformVariableSourceImpl> sources = new ArrayList<>();
+    StringBuilder code = new StringBuilder("round((");
+    for (int i = 0; i < SOURCES; i++) {
+      TransformVariableSource source = mock(TransformVariableSource.class);
+      when(source.getType()).thenReturn("var");
+      when(source.getValue()).thenReturn("power-meter-" + i);
+      sources.add(new TransformVariableSourceImpl(source, contextVar));
+      code.append(i == 0 ? "" : " + ").append("VAR").append(i);
+    }
+    code.append(") * 0.001 * 100) / 100");
+    String expression = code.toString();
+    DynamicVariableSet variables = new DynamicVariableSet(sources);
+
+    double perCall = Double.MAX_VALUE;
+    double cached = Double.MAX_VALUE;
+    ExtendedDoubleEvaluator evaluator = new ExtendedDoubleEvaluator(contextVar);
+    for (int round = 0; round < ROUNDS; round++) {
+      long time = System.nanoTime();
+      for (int i = 0; i < ITERATIONS / 10; i++) {
+        new ExtendedDoubleEvaluator(contextVar).evaluate(expression, variables);
+      }
+      perCall = Math.min(perCall, (System.nanoTime() - time) / 1000D / (ITERATIONS / 10D));
+
+      time = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        evaluator.evaluate(expression, variables);
+      }
+      cached = Math.min(cached, (System.nanoTime() - time) / 1000D / ITERATIONS);
+    }
+    System.out.printf(
+        "%d sources recalculation: new evaluator %.3f us/op, compiled %.3f us/op%n",
+        SOURCES, perCall, cached);
+  }
+}
@@ -0,0 +1,151 @@
+package org.homio.app.manager.common.impl;
+
+import static org.homio.api.util.JsonUtils.OBJECT_MAPPER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.homio.app.config.WebSocketConfig;
+import org.homio.app.model.rest.DynamicUpdateRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UISessionsTest {
+
+  private static final DynamicUpdateRequest REQUEST = new DynamicUpdateRequest("chart", "widget_1");
+
+  private final List<String[]> sent = new ArrayList<>();
+  private UISessions sessions;
+
+  @Before
+  public void setUp() {
+    sessions = new UISessions((destination, payload) -> sent.add(new String[]{destination, payload}));
+  }
+
+  @Test
+  public void testEqualValuesHaveNoPatch() {
+    assertNull(UISessions.createMergePatch(json("{\"a\": 1, \"b\": [1, 2]}"), json("{\"b\": [1, 2], \"a\": 1}")));
+  }
+
+  @Test
+  public void testFieldRemoval() {
+    assertPatch("{\"a\": 1, \"b\": 2}", "{\"a\": 1}", "{\"b\": null}");
+  }
+
+  @Test
+  public void testNestedObjects() {
+    assertPatch(
+        "{\"a\": {\"b\": 1, \"c\": {\"d\": 2, \"e\": 3}}, \"f\": 4}",
+        "{\"a\": {\"b\": 1, \"c\": {\"d\": 5}}, \"f\": 4}",
+        "{\"a\": {\"c\": {\"d\": 5, \"e\": null}}}");
+    // scalar replaced by object and object by scalar
+    assertPatch("{\"a\": 1, \"b\": {\"c\": 1}}", "{\"a\": {\"c\": 2}, \"b\": 3}", "{\"a\": {\"c\": 2}, \"b\": 3}");
+    // new nested object
+    assertPatch("{}", "{\"a\": {\"b\": {\"c\": 1}}}", "{\"a\": {\"b\": {\"c\": 1}}}");
+  }
+
+  @Test
+  public void testArraysAreReplaced() {
+    assertPatch("{\"a\": [1, 2, 3]}", "{\"a\": [1, 2]}", "{\"a\": [1, 2]}");
+    assertPatch("{\"a\": [{\"b\": 1}]}", "{\"a\": [{\"b\": 1, \"c\": 2}]}", "{\"a\": [{\"b\": 1, \"c\": 2}]}");
+    // nulls inside arrays are kept by array replacement
+    assertPatch("{\"a\": [1]}", "{\"a\": [null, {\"b\": null}]}", "{\"a\": [null, {\"b\": null}]}");
+    // top level array
+    assertPatch("[1, 2]", "[2, 1]", "[2, 1]");
+  }
+
+  @Test
+  public void testExplicitNullCanNotBePatched() {
+    assertTrue(UISessions.createMergePatch(json("{\"a\": 1}"), json("{\"a\": null}")).isMissingNode());
+    assertTrue(UISessions.createMergePatch(json("{}"), json("{\"a\": null}")).isMissingNode());
+    assertTrue(UISessions.createMergePatch(json("{\"a\": {\"b\": 1}}"), json("{\"a\": {\"b\": null}}")).isMissingNode());
+    assertTrue(UISessions.createMergePatch(json("{\"a\": 1}"), json("{\"a\": {\"b\": null}}")).isMissingNode());
+    assertTrue(UISessions.createMergePatch(json("[1]"), json("{\"a\": null}")).isMissingNode());
+    // unchanged null member doesn't prevent patch of other members
+    assertPatch("{\"a\": null, \"b\": 1}", "{\"a\": null, \"b\": 2}", "{\"b\": 2}");
+  }
+
+  @Test
+  public void testSessionSendsFullValueWhenPatchCanNotExpressIt() {
+    sessions.subscribed("stomp-1", sessionDestination("tab-1"));
+
+    sessions.send(List.of("tab-1"), REQUEST, "value", Map.of("a", 1));
+    sessions.send(List.of("tab-1"), REQUEST, "value", Map.of("a", 2));
+    sessions.send(List.of("tab-1"), REQUEST, "value", Map.of("a", 2));
+    sessions.send(List.of("tab-1"), REQUEST, "value", new Value(null));
+
+    assertEquals(3, sent.size());
+    assertEquals(UISessions.SESSION_DESTINATION + "tab-1", sent.get(0)[0]);
+    assertEquals(json("{\"a\": 1}"), frame(0).get("value"));
+    assertEquals(json("{\"a\": 2}"), frame(1).get("patch"));
+    assertEquals(json("{\"a\": null}"), frame(2).get("value"));
+  }
+
+  @Test
+  public void testResubscribeWithOtherSidClosesPreviousSession() {
+    sessions.subscribed("stomp-1", sessionDestination("tab-1"));
+    sessions.subscribed("stomp-1", sessionDestination("tab-2"));
+
+    sessions.send(List.of("tab-1", "tab-2"), REQUEST, "value", Map.of("a", 1));
+    assertEquals(1, sent.size());
+    assertEquals(UISessions.SESSION_DESTINATION + "tab-2", sent.get(0)[0]);
+
+    assertEquals("tab-2", sessions.disconnected("stomp-1"));
+    assertNull(sessions.disconnected("stomp-1"));
+  }
+
+  private static void assertPatch(String source, String target, String expectedPatch) {
+    JsonNode patch = UISessions.createMergePatch(json(source), json(target));
+    assertEquals(json(expectedPatch), patch);
+    assertEquals(json(target), applyMergePatch(json(source), patch));
+  }
+
+  /**
+   * RFC 7386 MergePatch(Target, Patch), same as client does
+   */
+  private static JsonNode applyMergePatch(JsonNode target, JsonNode patch) {
+    if (!patch.isObject()) {
+      return patch;
+    }
+    ObjectNode result = target.isObject() ? ((ObjectNode) target).deepCopy() : OBJECT_MAPPER.createObjectNode();
+    for (Iterator<Map.Entry<String, JsonNode>> iterator = patch.fields(); iterator.hasNext(); ) {
+      Map.Entry<String, JsonNode> entry = iterator.next();
+      if (entry.getValue().isNull()) {
+        result.remove(entry.getKey());
+      } else {
+        JsonNode current = result.get(entry.getKey());
+        result.set(entry.getKey(), applyMergePatch(current == null ? NullNode.getInstance() : current, entry.getValue()));
+      }
+    }
+    return result;
+  }
+
+  private JsonNode frame(int index) {
+    return json(sent.get(index)[1]);
+  }
+
+  private static String sessionDestination(String sid) {
+    return WebSocketConfig.DESTINATION_PREFIX + UISessions.SESSION_DESTINATION + sid;
+  }
+
+  private static JsonNode json(String json) {
+    try {
+      return OBJECT_MAPPER.readTree(json);
+    } catch (Exception ex) {
+      throw new IllegalArgumentException(ex);
+    }
+  }
+
+  // explicit null has to be serialized regardless of mapper's inclusion
+  @JsonInclude(Include.ALWAYS)
+  public record Value(Object a) {}
+}
@@ -0,0 +1,100 @@
+package org.homio.app.rest.widget;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.homio.api.entity.widget.AggregationType;
+
+/**
+ * 1M points of 7-day chart split into hourly buckets: previous boxed List<List<Float>> bucketing with linear bucket search
+ * vs ChartBuckets (arithmetic index for equidistant buckets, binary search otherwise). Results are verified by
+ * ChartBucketsTest. Not a unit test - run main() manually
+ */
+public class ChartBucketsBenchmark {
+
+  private static final int POINTS = 1_000_000;
+  private static final int BUCKETS = 7 * 24;
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) {
+    long to = System.currentTimeMillis();
+    long from = to - TimeUnit.DAYS.toMillis(7);
+    List<Date> dates = IntStream.range(0, BUCKETS)
+        .mapToObj(i -> new Date(from + TimeUnit.HOURS.toMillis(i)))
+        .collect(Collectors.toList());
+    // same buckets, but not equidistant, so binary search is used
+    List<Date> irregularDates = new ArrayList<>(dates);
+    irregularDates.set(1, new Date(irregularDates.get(1).getTime() + 1));
+
+    Random random = new Random(1);
+    List<Object[]> chartItems = new ArrayList<>(POINTS);
+    for (int i = 0; i < POINTS; i++) {
+      chartItems.add(new Object[]{from + (to - from) * i / POINTS, random.nextFloat() * 100});
+    }
+
+    for (AggregationType aggregationType : new AggregationType[]{AggregationType.AverageNoZero, AggregationType.Median}) {
+      double legacyBest = Double.MAX_VALUE;
+      double arithmeticBest = Double.MAX_VALUE;
+      double binaryBest = Double.MAX_VALUE;
+      long blackhole = 0;
+      for (int round = 0; round < ROUNDS; round++) {
+        long time = System.nanoTime();
+        blackhole += legacyAggregate(legacyConvert(dates, chartItems), aggregationType).size();
+        legacyBest = Math.min(legacyBest, (System.nanoTime() - time) / 1_000_000D);
+
+        time = System.nanoTime();
+        blackhole += ChartBuckets.build(ChartBuckets.toTimestamps(dates), chartItems).aggregate(aggregationType).size();
+        arithmeticBest = Math.min(arithmeticBest, (System.nanoTime() - time) / 1_000_000D);
+
+        time = System.nanoTime();
+        blackhole += ChartBuckets.build(ChartBuckets.toTimestamps(irregularDates), chartItems).aggregate(aggregationType).size();
+        binaryBest = Math.min(binaryBest, (System.nanoTime() - time) / 1_000_000D);
+      }
+      System.out.printf("%s, %d points / %d buckets: legacy %.1f ms, arithmetic %.1f ms, binary search %.1f ms "
+          + "(best of %d) [%d]%n",
+          aggregationType, POINTS, BUCKETS, legacyBest, arithmeticBest, binaryBest, ROUNDS, blackhole);
+    }
+  }
+
+  // previous EvaluateDatesAndValues implementation
+  private static List<List<Float>> legacyConvert(List<Date> dates, List<Object[]> chartItems) {
+    List<List<Float>> values = new ArrayList<>(dates.size());
+    IntStream.range(0, dates.size()).forEach(value -> values.add(new ArrayList<>()));
+    for (Object[] chartItem : chartItems) {
+      long time = chartItem[0] instanceof Date ? ((Date) chartItem[0]).getTime() : (long) chartItem[0];
+      int index = legacyDateIndex(dates, time);
+      if (index >= 0) {
+        values.get(index).add(((Number) chartItem[1]).floatValue());
+      }
+    }
+    return values;
+  }
+
+  private static List<Float> legacyAggregate(List<List<Float>> values, AggregationType aggregationType) {
+    return values.stream().map(items -> {
+          if (items.isEmpty()) {
+            return null;
+          }
+          Stream<Float> stream = items.stream();
+          if (aggregationType.isRequireSorting()) {
+            stream = stream.sorted();
+          }
+          return aggregationType.evaluate(stream);
+        })
+        .collect(Collectors.toList());
+  }
+
+  private static int legacyDateIndex(List<Date> dateList, long time) {
+    for (int i = 0; i < dateList.size(); i++) {
+      if (time < dateList.get(i).getTime()) {
+        return i - 1;
+      }
+    }
+    return dateList.size() - 1;
+  }
+}
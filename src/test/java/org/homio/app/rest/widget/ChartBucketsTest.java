@@ -0,0 +1,159 @@
+package org.homio.app.rest.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.homio.api.entity.widget.AggregationType;
+import org.junit.Test;
+
+public class ChartBucketsTest {
+
+  private static final long[] EQUIDISTANT = {100, 200, 300, 400};
+  private static final long[] IRREGULAR = {100, 150, 300, 310};
+
+  @Test
+  public void testEveryAggregationMatchesEvaluate() {
+    Random random = new Random(1);
+    long[] bucketStarts = IntStream.range(0, 50).mapToLong(i -> i * 10L).toArray();
+    List<Object[]> chartItems = new ArrayList<>();
+    for (int bucket = 0; bucket < bucketStarts.length; bucket++) {
+      // every 5th bucket is empty, every 7th has single value, every 3rd has only zeros
+      int size = bucket % 5 == 0 ? 0 : bucket % 7 == 0 ? 1 : 1 + random.nextInt(20);
+      for (int i = 0; i < size; i++) {
+        float value = bucket % 3 == 0 || random.nextInt(4) == 0 ? 0 : (random.nextFloat() - 0.3F) * 100;
+        chartItems.add(new Object[]{bucketStarts[bucket] + random.nextInt(10), value});
+      }
+    }
+    List<List<Float>> expectedBuckets = linearBuckets(bucketStarts, chartItems);
+    ChartBuckets chartBuckets = ChartBuckets.build(bucketStarts, chartItems);
+
+    for (AggregationType aggregationType : AggregationType.values()) {
+      List<Float> actual = chartBuckets.aggregate(aggregationType);
+      assertEquals(bucketStarts.length, actual.size());
+      for (int bucket = 0; bucket < bucketStarts.length; bucket++) {
+        String message = aggregationType + " of bucket " + bucket;
+        Float expected = evaluate(aggregationType, expectedBuckets.get(bucket));
+        if (expected == null) {
+          assertNull(message, actual.get(bucket));
+          assertNull(message, ChartBuckets.aggregate(aggregationType, new float[0], 0));
+        } else {
+          assertClose(message, expected, actual.get(bucket));
+          float[] values = chartBuckets.values(bucket);
+          // single bucket aggregation uses only first 'count' values
+          float[] withTail = Arrays.copyOf(values, values.length + 3);
+          assertClose(message, expected, ChartBuckets.aggregate(aggregationType, withTail, values.length));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEquidistantBucketPlacement() {
+    ChartBuckets chartBuckets = ChartBuckets.build(EQUIDISTANT, List.of(
+        point(99, 1), point(100, 2), point(199, 3), point(200, 4), point(450, 5), point(10_000, 6)));
+
+    assertEquals(4, chartBuckets.size());
+    assertBucket(chartBuckets, 0, 2, 3);
+    assertBucket(chartBuckets, 1, 4);
+    assertBucket(chartBuckets, 2);
+    // points after last bucket start belong to last bucket
+    assertBucket(chartBuckets, 3, 5, 6);
+  }
+
+  @Test
+  public void testIrregularBucketPlacement() {
+    ChartBuckets chartBuckets = ChartBuckets.build(IRREGULAR, List.of(
+        point(99, 1), point(149, 2), point(150, 3), point(299, 4), point(305, 5), point(310, 6), point(999, 7)));
+
+    assertBucket(chartBuckets, 0, 2);
+    assertBucket(chartBuckets, 1, 3, 4);
+    assertBucket(chartBuckets, 2, 5);
+    assertBucket(chartBuckets, 3, 6, 7);
+  }
+
+  @Test
+  public void testPlacementMatchesLinearSearch() {
+    Random random = new Random(2);
+    for (long[] bucketStarts : new long[][]{EQUIDISTANT, IRREGULAR}) {
+      List<Object[]> chartItems = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        // includes points before first bucket
+        chartItems.add(point(50 + random.nextInt(500), random.nextFloat()));
+      }
+      List<List<Float>> expected = linearBuckets(bucketStarts, chartItems);
+      ChartBuckets chartBuckets = ChartBuckets.build(bucketStarts, chartItems);
+      for (int bucket = 0; bucket < bucketStarts.length; bucket++) {
+        assertEquals(expected.get(bucket), toList(chartBuckets.values(bucket)));
+      }
+    }
+  }
+
+  @Test
+  public void testDatePointsAndEmptyBuckets() {
+    ChartBuckets chartBuckets = ChartBuckets.build(EQUIDISTANT, List.<Object[]>of(new Object[]{new Date(250), 1F}));
+    assertBucket(chartBuckets, 1, 1);
+    assertEquals(Arrays.asList(null, 1F, null, null), chartBuckets.aggregate(AggregationType.Sum));
+
+    ChartBuckets noBuckets = ChartBuckets.build(new long[0], List.<Object[]>of(point(100, 1)));
+    assertTrue(noBuckets.isEmpty());
+    assertEquals(List.of(), noBuckets.aggregate(AggregationType.Sum));
+  }
+
+  private static void assertBucket(ChartBuckets chartBuckets, int bucket, float... values) {
+    assertEquals(values.length, chartBuckets.count(bucket));
+    assertEquals(toList(values), toList(chartBuckets.values(bucket)));
+  }
+
+  private static void assertClose(String message, float expected, Float actual) {
+    assertEquals(message, expected, actual, Math.max(1e-4, Math.abs(expected) * 1e-5));
+  }
+
+  private static Float evaluate(AggregationType aggregationType, List<Float> values) {
+    if (values.isEmpty()) {
+      return null;
+    }
+    Stream<Float> stream = values.stream();
+    if (aggregationType.isRequireSorting()) {
+      stream = stream.sorted();
+    }
+    return aggregationType.evaluate(stream);
+  }
+
+  // point belongs to last bucket which start <= point's time
+  private static List<List<Float>> linearBuckets(long[] bucketStarts, List<Object[]> chartItems) {
+    List<List<Float>> buckets = new ArrayList<>();
+    for (int i = 0; i < bucketStarts.length; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (Object[] chartItem : chartItems) {
+      long time = (long) chartItem[0];
+      for (int i = bucketStarts.length - 1; i >= 0; i--) {
+        if (bucketStarts[i] <= time) {
+          buckets.get(i).add(((Number) chartItem[1]).floatValue());
+          break;
+        }
+      }
+    }
+    return buckets;
+  }
+
+  private static List<Float> toList(float[] values) {
+    List<Float> list = new ArrayList<>(values.length);
+    for (float value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+  private static Object[] point(long time, float value) {
+    return new Object[]{time, value};
+  }
+}
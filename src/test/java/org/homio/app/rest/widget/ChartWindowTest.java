@@ -0,0 +1,141 @@
+package org.homio.app.rest.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.homio.api.entity.widget.AggregationType;
+import org.homio.api.model.HasEntityIdentifier;
+import org.homio.app.model.entity.widget.impl.chart.HasChartDataSource;
+import org.homio.app.rest.widget.WidgetChartsController.TimeSeriesChartDelta;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChartWindowTest {
+
+  private static final String SERIES = "series";
+  private static final String DATASET = "dataset";
+
+  private ChartWindow chartWindow;
+
+  /**
+   * Buckets start at 0, 10, 20, 30. Open bucket (30) has values 2 and 4, latest point at 34
+   */
+  @Before
+  public void setUp() {
+    chartWindow = createWindow(new long[]{0, 10, 20, 30}, point(5, 1), point(32, 2), point(34, 4));
+  }
+
+  @Test
+  public void testAppendToOpenBucket() {
+    List<TimeSeriesChartDelta> deltas = chartWindow.append(SERIES, points(point(36, 3)));
+
+    assertEquals(1, deltas.size());
+    assertEquals(List.of(), deltas.get(0).appendTimestamp());
+    assertEquals(SERIES, deltas.get(0).seriesEntityID());
+    assertEquals(Map.of(DATASET, 9F), deltas.get(0).lastBucket());
+    assertEquals(36, chartWindow.getLastPointTime(SERIES));
+  }
+
+  @Test
+  public void testSlideByOneBucket() {
+    List<TimeSeriesChartDelta> deltas = chartWindow.append(SERIES, points(point(45, 5)));
+
+    assertEquals(1, deltas.size());
+    assertEquals(List.of(40L), deltas.get(0).appendTimestamp());
+    // values of previous open bucket are not carried to new one
+    assertEquals(Map.of(DATASET, 5F), deltas.get(0).lastBucket());
+
+    deltas = chartWindow.append(SERIES, points(point(47, 1)));
+    assertEquals(List.of(), deltas.get(0).appendTimestamp());
+    assertEquals(Map.of(DATASET, 6F), deltas.get(0).lastBucket());
+  }
+
+  @Test
+  public void testSlideBySeveralBucketsLeavesEmptyBuckets() {
+    List<TimeSeriesChartDelta> deltas = chartWindow.append(SERIES, points(point(65, 7)));
+
+    assertEquals(1, deltas.size());
+    // 40 and 50 are opened without values, so UI shows them empty
+    assertEquals(List.of(40L, 50L, 60L), deltas.get(0).appendTimestamp());
+    assertEquals(Map.of(DATASET, 7F), deltas.get(0).lastBucket());
+
+    // window now is 30, 40, 50, 60, so point at 55 is in closed bucket
+    assertNull(chartWindow.append(SERIES, points(point(55, 1))));
+  }
+
+  @Test
+  public void testPointsOfSeveralNewBucketsGoAsDeltaPerBucket() {
+    List<TimeSeriesChartDelta> deltas =
+        chartWindow.append(SERIES, points(point(36, 1), point(45, 5), point(55, 6)));
+
+    assertEquals(3, deltas.size());
+    assertEquals(List.of(), deltas.get(0).appendTimestamp());
+    assertEquals(Map.of(DATASET, 7F), deltas.get(0).lastBucket());
+    assertEquals(List.of(40L), deltas.get(1).appendTimestamp());
+    assertEquals(Map.of(DATASET, 5F), deltas.get(1).lastBucket());
+    assertEquals(List.of(50L), deltas.get(2).appendTimestamp());
+    assertEquals(Map.of(DATASET, 6F), deltas.get(2).lastBucket());
+    assertEquals(55, chartWindow.getLastPointTime(SERIES));
+  }
+
+  @Test
+  public void testPointInClosedBucketRequiresRebuild() {
+    assertNull(chartWindow.append(SERIES, points(point(36, 1), point(25, 1))));
+    // window is not modified
+    assertEquals(34, chartWindow.getLastPointTime(SERIES));
+    assertEquals(Map.of(DATASET, 7F), chartWindow.append(SERIES, points(point(36, 1))).get(0).lastBucket());
+  }
+
+  @Test
+  public void testRollOverWholeWindowRequiresRebuild() {
+    assertNull(chartWindow.append(SERIES, points(point(70, 1))));
+    assertEquals(1, chartWindow.append(SERIES, points(point(69, 1))).size());
+  }
+
+  @Test
+  public void testUnknownSeriesOrDatasetRequiresRebuild() {
+    assertNull(chartWindow.append("other", points(point(36, 1))));
+    assertNull(chartWindow.append(SERIES, Map.of("other", List.<Object[]>of(point(36, 1)))));
+  }
+
+  @Test
+  public void testSingleBucketWindowRequiresRebuild() {
+    chartWindow = createWindow(new long[]{0}, point(5, 1));
+    assertNull(chartWindow.append(SERIES, points(point(6, 1))));
+  }
+
+  private static ChartWindow createWindow(long[] bucketStarts, Object[]... points) {
+    HasChartDataSource seriesEntity = mock(HasChartDataSource.class, withSettings().extraInterfaces(HasEntityIdentifier.class));
+    when(((HasEntityIdentifier) seriesEntity).getEntityID()).thenReturn(SERIES);
+    when(seriesEntity.getChartAggregationType()).thenReturn(AggregationType.Sum);
+
+    List<Object[]> chartItems = List.of(points);
+    TimeSeriesContext<HasChartDataSource> item = new TimeSeriesContext<>(DATASET, seriesEntity, null);
+    item.setValue(chartItems);
+    item.setValues(ChartBuckets.build(bucketStarts, chartItems));
+
+    List<Date> dates = new ArrayList<>();
+    for (long bucketStart : bucketStarts) {
+      dates.add(new Date(bucketStart));
+    }
+    ChartWindow chartWindow = new ChartWindow();
+    chartWindow.reset(dates, List.of(new TimeSeriesValues<>(Set.of(item), new Object())));
+    return chartWindow;
+  }
+
+  private static Map<String, List<Object[]>> points(Object[]... points) {
+    return Map.of(DATASET, List.of(points));
+  }
+
+  private static Object[] point(long time, float value) {
+    return new Object[]{time, value};
+  }
+}
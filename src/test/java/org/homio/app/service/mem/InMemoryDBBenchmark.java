@@ -0,0 +1,91 @@
+package org.homio.app.service.mem;
+
+import org.homio.app.model.var.WorkspaceVariableMessage;
+
+/**
+ * Inserts, chart reads and over-quota inserts on 100k points series of NativeDataStorageService. Same main() is run on revision
+ * before and after storage change to compare. Not a unit test - run main() manually
+ */
+public class InMemoryDBBenchmark {
+
+  private static final int POINTS = 100_000;
+  private static final int READS = 200;
+  private static final int ROUNDS = 5;
+  // 1 point per second
+  private static final long STEP = 1000;
+  // every LATE_EVERY row arrives LATE_BY ms late
+  private static final int LATE_EVERY = 100;
+  private static final long LATE_BY = 600_000;
+
+  public static void main(String[] args) {
+    long start = System.currentTimeMillis() - POINTS * STEP;
+    double insertBest = Double.MAX_VALUE;
+    double lateInsertBest = Double.MAX_VALUE;
+    double hourReadBest = Double.MAX_VALUE;
+    double rangeReadBest = Double.MAX_VALUE;
+    double countBest = Double.MAX_VALUE;
+    double evictBest = Double.MAX_VALUE;
+    long blackhole = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      NativeDataStorageService<WorkspaceVariableMessage> service = createService();
+      long time = System.nanoTime();
+      for (int i = 0; i < POINTS; i++) {
+        service.save(message(start + i * STEP, (float) Math.sin(i / 100D)));
+      }
+      insertBest = Math.min(insertBest, (System.nanoTime() - time) / 1000D / POINTS);
+
+      NativeDataStorageService<WorkspaceVariableMessage> lateService = createService();
+      time = System.nanoTime();
+      for (int i = 0; i < POINTS; i++) {
+        long created = start + i * STEP - (i % LATE_EVERY == 0 ? LATE_BY : 0);
+        lateService.save(message(created, (float) i));
+      }
+      lateInsertBest = Math.min(lateInsertBest, (System.nanoTime() - time) / 1000D / POINTS);
+
+      // last hour of data, as 'hour' chart does
+      long hourFrom = start + (POINTS - 3600) * STEP;
+      time = System.nanoTime();
+      for (int i = 0; i < READS; i++) {
+        blackhole += service.getTimeSeries(hourFrom, null, null, null, "value", null, true).size();
+      }
+      hourReadBest = Math.min(hourReadBest, (System.nanoTime() - time) / 1_000_000D / READS);
+
+      // 10 minutes in the middle of series
+      long rangeFrom = start + POINTS / 2 * STEP;
+      long rangeTo = rangeFrom + 600 * STEP;
+      time = System.nanoTime();
+      for (int i = 0; i < READS; i++) {
+        blackhole += service.getTimeSeries(rangeFrom, rangeTo, null, null, "value", null, true).size();
+      }
+      rangeReadBest = Math.min(rangeReadBest, (System.nanoTime() - time) / 1_000_000D / READS);
+
+      time = System.nanoTime();
+      for (int i = 0; i < READS; i++) {
+        blackhole += service.count(rangeFrom, rangeTo);
+      }
+      countBest = Math.min(countBest, (System.nanoTime() - time) / 1000D / READS);
+
+      // quota eviction: every insert over quota
+      time = System.nanoTime();
+      for (int i = 0; i < POINTS / 10; i++) {
+        service.save(message(start + (POINTS + i) * STEP, (float) i));
+      }
+      evictBest = Math.min(evictBest, (System.nanoTime() - time) / 1000D / (POINTS / 10D));
+    }
+    System.out.printf("%d points, best of %d rounds. insert: %.3f us/op, insert with %d%% late rows: %.3f us/op, "
+        + "hour chart read: %.3f ms/op, 10 min range read: %.3f ms/op, range count: %.3f us/op, insert over quota: %.3f us/op [%d]%n",
+      POINTS, ROUNDS, insertBest, 100 / LATE_EVERY, lateInsertBest, hourReadBest, rangeReadBest, countBest, evictBest, blackhole);
+  }
+
+  private static NativeDataStorageService<WorkspaceVariableMessage> createService() {
+    NativeDataStorageService<WorkspaceVariableMessage> service = new NativeDataStorageService<>(WorkspaceVariableMessage.class);
+    service.updateQuota((long) POINTS);
+    return service;
+  }
+
+  private static WorkspaceVariableMessage message(long created, float value) {
+    WorkspaceVariableMessage message = new WorkspaceVariableMessage(value);
+    message.setCreated(created);
+    return message;
+  }
+}
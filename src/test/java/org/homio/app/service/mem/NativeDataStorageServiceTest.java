@@ -0,0 +1,88 @@
+package org.homio.app.service.mem;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.homio.app.model.var.WorkspaceVariableMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NativeDataStorageServiceTest {
+
+  private NativeDataStorageService<WorkspaceVariableMessage> service;
+
+  @Before
+  public void setUp() {
+    service = new NativeDataStorageService<>(WorkspaceVariableMessage.class);
+  }
+
+  @Test
+  public void testLateRowsKeptSortedByCreated() {
+    save(1000, 3000, 5000, 2000, 500, 4000);
+
+    assertEquals(List.of(500L, 1000L, 2000L, 3000L, 4000L, 5000L), times(service.getTimeSeries(null, null, null, null, "value", null, true)));
+    assertEquals(List.of(5000L, 4000L), times(service.getTimeSeries(null, null, null, null, "value", 2, false)));
+  }
+
+  @Test
+  public void testRangeBoundsAreInclusive() {
+    save(1000, 2000, 3000, 4000, 5000);
+
+    assertEquals(List.of(2000L, 3000L, 4000L), times(service.getTimeSeries(2000L, 4000L, null, null, "value", null, true)));
+    assertEquals(List.of(2000L, 3000L, 4000L), times(service.getTimeSeries(1500L, 4500L, null, null, "value", null, true)));
+    assertEquals(3, service.count(2000L, 4000L));
+    assertEquals(List.of(), times(service.getTimeSeries(6000L, null, null, null, "value", null, true)));
+    assertEquals(List.of(), times(service.getTimeSeries(3500L, 3600L, null, null, "value", null, true)));
+    assertEquals(0, service.count(4000L, 2000L));
+  }
+
+  @Test
+  public void testRangeReadsMatchLinearScan() {
+    Random random = new Random(1);
+    List<Long> inserted = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      // unique times, every 10th row arrives late
+      long created = i * 10L + 10_000 - (i % 10 == 0 ? random.nextInt(10_000) / 10 * 10 + 5 : 0);
+      if (!inserted.contains(created)) {
+        inserted.add(created);
+        save(created);
+      }
+    }
+    for (int i = 0; i < 200; i++) {
+      long from = random.nextInt(32_000) - 1000;
+      long to = from + random.nextInt(5000);
+      List<Long> expected = inserted.stream().filter(time -> time >= from && time <= to).sorted().toList();
+      assertEquals(expected, times(service.getTimeSeries(from, to, null, null, "value", null, true)));
+      assertEquals(expected.size(), service.count(from, to));
+    }
+  }
+
+  @Test
+  public void testOverQuotaInsertDropsOldestRows() {
+    service.updateQuota(100L);
+    for (int i = 0; i < 101; i++) {
+      save(i * 1000L);
+    }
+
+    // 10% of quota is dropped at once
+    assertEquals(91, service.getUsed());
+    List<Long> times = times(service.getTimeSeries(null, null, null, null, "value", null, true));
+    assertEquals(10_000L, (long) times.get(0));
+    assertEquals(100_000L, (long) times.get(times.size() - 1));
+    assertEquals(100_000L, service.getLatest().getCreated());
+  }
+
+  private void save(long... times) {
+    for (long time : times) {
+      WorkspaceVariableMessage message = new WorkspaceVariableMessage((float) time);
+      message.setCreated(time);
+      service.save(message);
+    }
+  }
+
+  private static List<Long> times(List<Object[]> series) {
+    return series.stream().map(item -> (Long) item[0]).toList();
+  }
+}
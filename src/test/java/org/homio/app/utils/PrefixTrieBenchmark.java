@@ -0,0 +1,81 @@
+package org.homio.app.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Repository lookup by entity id: linear 'startsWith' scan (as ContextImpl.getRepository did) vs PrefixTrie. Core prefixes
+ * plus generated addon-like prefixes, so there are ~120 repositories. Lookup results are verified by PrefixTrieTest. Not a
+ * unit test - run main() manually
+ */
+public class PrefixTrieBenchmark {
+
+  private static final String[] CORE_PREFIXES = {
+      "dvc_", "devser_", "series_", "widget_", "group_", "script_", "space_", "st_", "tab_", "var_", "nd"};
+  private static final int ADDON_PREFIXES = 110;
+  private static final int LOOKUPS = 1_000_000;
+  private static final int ROUNDS = 10;
+
+  public static void main(String[] args) {
+    Random random = new Random(1);
+    Map<String, String> repositories = new HashMap<>();
+    for (String prefix : CORE_PREFIXES) {
+      repositories.put(prefix, prefix);
+    }
+    while (repositories.size() < CORE_PREFIXES.length + ADDON_PREFIXES) {
+      String prefix = randomWord(random, 2 + random.nextInt(6)) + "_";
+      if (prefix.startsWith("nd")) {
+        continue; // keep prefixes unambiguous, linear scan result depends on map order otherwise
+      }
+      repositories.put(prefix, prefix);
+    }
+    List<String> prefixes = new ArrayList<>(repositories.keySet());
+    String[] entityIDs = new String[4096];
+    for (int i = 0; i < entityIDs.length; i++) {
+      // every 8th id has no repository and falls back to default one
+      entityIDs[i] = (i % 8 == 0 ? "zz" : prefixes.get(random.nextInt(prefixes.size()))) + randomWord(random, 12);
+    }
+    PrefixTrie<String> trie = new PrefixTrie<>(repositories);
+
+    double linearBest = Double.MAX_VALUE;
+    double trieBest = Double.MAX_VALUE;
+    long blackhole = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long time = System.nanoTime();
+      for (int i = 0; i < LOOKUPS; i++) {
+        String found = linearScan(repositories, entityIDs[i & (entityIDs.length - 1)]);
+        blackhole += found == null ? 0 : found.length();
+      }
+      linearBest = Math.min(linearBest, (System.nanoTime() - time) / (double) LOOKUPS);
+
+      time = System.nanoTime();
+      for (int i = 0; i < LOOKUPS; i++) {
+        String found = trie.findByPrefix(entityIDs[i & (entityIDs.length - 1)]);
+        blackhole += found == null ? 0 : found.length();
+      }
+      trieBest = Math.min(trieBest, (System.nanoTime() - time) / (double) LOOKUPS);
+    }
+    System.out.printf("%d repositories. linear: %.1f ns/lookup, trie: %.1f ns/lookup (best of %d rounds) [%d]%n",
+        repositories.size(), linearBest, trieBest, ROUNDS, blackhole);
+  }
+
+  private static String linearScan(Map<String, String> repositories, String entityID) {
+    for (String prefix : repositories.values()) {
+      if (entityID.startsWith(prefix)) {
+        return prefix;
+      }
+    }
+    return null;
+  }
+
+  private static String randomWord(Random random, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('a' + random.nextInt(26));
+    }
+    return new String(chars);
+  }
+}
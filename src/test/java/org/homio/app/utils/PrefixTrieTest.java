@@ -0,0 +1,76 @@
+package org.homio.app.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class PrefixTrieTest {
+
+  @Test
+  public void testLongestPrefixWins() {
+    PrefixTrie<String> trie = new PrefixTrie<>(Map.of("dvc_", "device", "dvc_zigbee_", "zigbee", "d", "short"));
+
+    assertEquals("zigbee", trie.findByPrefix("dvc_zigbee_0x1234"));
+    assertEquals("device", trie.findByPrefix("dvc_zigbe"));
+    assertEquals("device", trie.findByPrefix("dvc_"));
+    assertEquals("short", trie.findByPrefix("dvc"));
+    assertEquals(3, trie.size());
+  }
+
+  @Test
+  public void testNoMatch() {
+    PrefixTrie<String> trie = new PrefixTrie<>(Map.of("dvc_", "device", "var_", "variable"));
+
+    assertNull(trie.findByPrefix("zz_1"));
+    assertNull(trie.findByPrefix("dv"));
+    assertNull(trie.findByPrefix(""));
+    assertNull(new PrefixTrie<String>(Map.of()).findByPrefix("dvc_"));
+  }
+
+  @Test
+  public void testEmptyKeyMatchesAnyText() {
+    PrefixTrie<String> trie = new PrefixTrie<>(Map.of("", "default", "var_", "variable"));
+
+    assertEquals("default", trie.findByPrefix(""));
+    assertEquals("default", trie.findByPrefix("zz_1"));
+    assertEquals("variable", trie.findByPrefix("var_1"));
+  }
+
+  @Test
+  public void testMatchesLinearScan() {
+    Random random = new Random(1);
+    Map<String, String> values = new HashMap<>();
+    while (values.size() < 100) {
+      String key = randomWord(random, 1 + random.nextInt(6));
+      values.put(key, key);
+    }
+    PrefixTrie<String> trie = new PrefixTrie<>(values);
+    for (int i = 0; i < 10_000; i++) {
+      String text = randomWord(random, random.nextInt(10));
+      assertEquals(text, linearScan(values, text), trie.findByPrefix(text));
+    }
+  }
+
+  private static String linearScan(Map<String, String> values, String text) {
+    String found = null;
+    for (String key : values.keySet()) {
+      if (text.startsWith(key) && (found == null || key.length() > found.length())) {
+        found = key;
+      }
+    }
+    return found == null ? null : values.get(found);
+  }
+
+  // small alphabet, so keys are often prefixes of each other
+  private static String randomWord(Random random, int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('a' + random.nextInt(3));
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,88 @@
+package org.homio.app.workspace;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import org.homio.api.Context;
+import org.homio.api.ContextBGP.ThreadContext;
+import org.homio.api.state.DecimalType;
+import org.homio.api.workspace.scratch.Scratch3ExtensionBlocks;
+import org.homio.app.workspace.WorkspaceService.WorkspaceTabHolder;
+import org.homio.app.workspace.block.core.Scratch3ControlBlocks;
+import org.homio.app.workspace.block.core.Scratch3OperatorBlocks;
+import org.json.JSONObject;
+
+/**
+ * Body of 10k iterations 'repeat' loop: if (3 + 2 * 5 < 100) { if (7 > 1) {} }. Loop is driven
+ * here the same way as 'ntimes' schedule of control_repeat does, without 100ms bgp interval. Not a
+ * unit test - run main() manually
+ */
+public class WorkspaceBlockBenchmark {
+
+  private static final int ITERATIONS = 10_000;
+  private static final int ROUNDS = 20;
+
+  private static final String BLOCKS =
+      """
+      {
+        "loop": {"opcode": "control_if", "topLevel": true,
+          "inputs": {"CONDITION": [2, "lt"], "SUBSTACK": [2, "inner"]}},
+        "inner": {"opcode": "control_if", "topLevel": false, "parent": "loop",
+          "inputs": {"CONDITION": [2, "gt"]}},
+        "lt": {"opcode": "operator_lt", "topLevel": false, "parent": "loop",
+          "inputs": {"OPERAND1": [3, "add", [10, ""]], "OPERAND2": [1, [10, "100"]]}},
+        "add": {"opcode": "operator_add", "topLevel": false, "parent": "lt",
+          "inputs": {"NUM1": [1, [4, "3"]], "NUM2": [3, "mul", [4, ""]]}},
+        "mul": {"opcode": "operator_multiply", "topLevel": false, "parent": "add",
+          "inputs": {"NUM1": [1, [4, "2"]], "NUM2": [1, [4, "5"]]}},
+        "gt": {"opcode": "operator_gt", "topLevel": false, "parent": "inner",
+          "inputs": {"OPERAND1": [1, [10, "7"]], "OPERAND2": [1, [10, "1"]]}}
+      }
+      """;
+
+  public static void main(String[] args) {
+    Context context = mock(Context.class, RETURNS_DEEP_STUBS);
+    Map<String, Scratch3ExtensionBlocks> scratch3Blocks =
+        Map.of(
+            "control", new Scratch3ControlBlocks(context),
+            "operator", new Scratch3OperatorBlocks(context));
+    scratch3Blocks.values().forEach(Scratch3ExtensionBlocks::init);
+
+    long time = System.nanoTime();
+    WorkspaceTabHolder holder = new WorkspaceTabHolder("bench", context, scratch3Blocks);
+    JSONObject blocks = new JSONObject(BLOCKS);
+    for (String id : blocks.keySet()) {
+      holder.getBlocks().put(id, new WorkspaceBlockImpl(id, holder));
+    }
+    for (String id : blocks.keySet()) {
+      JSONObject block = blocks.getJSONObject(id);
+      WorkspaceBlockImpl workspaceBlock = holder.getBlocks().get(id);
+      workspaceBlock.setOpcode(block.getString("opcode"));
+      workspaceBlock.setTopLevel(block.getBoolean("topLevel"));
+      workspaceBlock.setParent(holder.getBlocks().get(block.optString("parent")));
+      JSONObject inputs = block.getJSONObject("inputs");
+      for (String key : inputs.keySet()) {
+        workspaceBlock.getInputs().put(key, inputs.getJSONArray(key));
+      }
+    }
+    holder.getBlocks().values().forEach(WorkspaceBlockImpl::compile);
+    long compileNanos = System.nanoTime() - time;
+
+    WorkspaceBlockImpl loop = holder.getBlocks().get("loop");
+    loop.setThreadContext(mock(ThreadContext.class));
+
+    double best = Double.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      time = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; i++) {
+        loop.setValue("INDEX", new DecimalType(i));
+        loop.handle();
+      }
+      best = Math.min(best, (System.nanoTime() - time) / 1000D / ITERATIONS);
+    }
+    System.out.printf(
+        "compile: %.2f ms, repeat(%d) body: %.3f us/iteration (best of %d rounds)%n",
+        compileNanos / 1_000_000D, ITERATIONS, best, ROUNDS);
+  }
+}